@@ -0,0 +1,11 @@
+plugins {
+    id("com.time.tdd.java-conventions")
+}
+
+dependencies {
+    testImplementation(project(":container"))
+    testImplementation("jakarta.inject:jakarta.inject-api:2.0.1")
+    testImplementation("jakarta.annotation:jakarta.annotation-api:2.1.1")
+    testImplementation("org.junit.jupiter:junit-jupiter-api:5.8.2")
+    testRuntimeOnly("org.junit.jupiter:junit-jupiter-engine:5.8.2")
+}
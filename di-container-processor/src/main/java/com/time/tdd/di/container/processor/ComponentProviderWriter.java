@@ -0,0 +1,147 @@
+package com.time.tdd.di.container.processor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.SimpleAnnotationValueVisitor9;
+
+/**
+ * the ComponentRef constants are the ones getDependencies() returns, which the container matches by identity
+ *
+ * @author XuJian
+ * @date 2023-03-13 22:30
+ **/
+class ComponentProviderWriter {
+    private static final String CONTAINER = "com.time.tdd.di.container";
+
+    private final ProcessingEnvironment env;
+    private final InjectProcessor.Wiring wiring;
+    private final List<String> constants = new ArrayList<>();
+
+    ComponentProviderWriter(ProcessingEnvironment env, InjectProcessor.Wiring wiring) {
+        this.env = env;
+        this.wiring = wiring;
+    }
+
+    String write() {
+        TypeElement component = wiring.component();
+        String type = component.getQualifiedName().toString();
+        String packageName = env.getElementUtils().getPackageOf(component).getQualifiedName().toString();
+        String binaryName = env.getElementUtils().getBinaryName(component).toString();
+        String simpleName = binaryName.substring(binaryName.lastIndexOf('.') + 1) + InjectProcessor.SUFFIX;
+
+        StringBuilder body = new StringBuilder();
+        body.append("        ").append(type).append(" instance = new ").append(type).append("(")
+            .append(arguments(wiring.constructor().getParameters())).append(");\n");
+        for (VariableElement field : wiring.fields()) {
+            body.append("        ").append(receiver(field)).append(".").append(field.getSimpleName())
+                .append(" = ").append(dependency(field)).append(";\n");
+        }
+        for (ExecutableElement method : wiring.methods()) {
+            body.append("        ").append(receiver(method)).append(".").append(method.getSimpleName())
+                .append("(").append(arguments(method.getParameters())).append(");\n");
+        }
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("@javax.annotation.processing.Generated(\"").append(InjectProcessor.class.getName()).append("\")\n")
+            .append("public final class ").append(simpleName).append(" implements ").append(CONTAINER)
+            .append(".ComponentProvider<").append(type).append("> {\n");
+        for (int i = 0; i < constants.size(); i++) {
+            source.append("    private static final ").append(constants.get(i)).append(";\n");
+        }
+        source.append("    private static final java.util.List<").append(CONTAINER).append(".ComponentRef<?>> DEPENDENCIES = java.util.List.of(")
+            .append(IntStream.range(0, constants.size()).mapToObj(i -> "DEPENDENCY_" + i).collect(Collectors.joining(", ")))
+            .append(");\n\n")
+            .append("    @Override\n")
+            .append("    public ").append(type).append(" get(").append(CONTAINER).append(".Context context) {\n")
+            .append(body)
+            .append("        return instance;\n")
+            .append("    }\n\n")
+            .append("    @Override\n")
+            .append("    public java.util.List<").append(CONTAINER).append(".ComponentRef<?>> getDependencies() {\n")
+            .append("        return DEPENDENCIES;\n")
+            .append("    }\n")
+            .append("}\n");
+        return source.toString();
+    }
+
+    private String receiver(Element member) {
+        TypeElement declaring = (TypeElement) member.getEnclosingElement();
+        return declaring.equals(wiring.component()) ? "instance" : "((" + declaring.getQualifiedName() + ") instance)";
+    }
+
+    private String arguments(List<? extends VariableElement> parameters) {
+        return parameters.stream().map(this::dependency).collect(Collectors.joining(", "));
+    }
+
+    private String dependency(VariableElement element) {
+        String name = "DEPENDENCY_" + constants.size();
+        TypeMirror type = element.asType();
+        String qualifier = InjectProcessor.qualifiersOf(element).stream().findFirst().map(this::qualifier).orElse("");
+        String refType = CONTAINER + ".ComponentRef<" + boxed(type) + ">";
+        String ref = type instanceof DeclaredType declared && !declared.getTypeArguments().isEmpty()
+            ? "new " + refType + "(" + qualifier + ") {\n    }"
+            : CONTAINER + ".ComponentRef.of(" + env.getTypeUtils().erasure(type) + ".class" + (qualifier.isEmpty() ? "" : ", " + qualifier) + ")";
+        constants.add(refType + " " + name + " = " + ref);
+        return "context.get(" + name + ").get()";
+    }
+
+    private String boxed(TypeMirror type) {
+        return type.getKind().isPrimitive()
+            ? env.getTypeUtils().boxedClass(env.getTypeUtils().getPrimitiveType(type.getKind())).getQualifiedName().toString()
+            : type.toString();
+    }
+
+    private String qualifier(AnnotationMirror annotation) {
+        String members = annotation.getElementValues().entrySet().stream()
+            .map(e -> "java.util.Map.entry(\"" + e.getKey().getSimpleName() + "\", " + value(e.getKey(), e.getValue()) + ")")
+            .collect(Collectors.joining(", "));
+        return CONTAINER + ".Qualifiers.of(" + env.getTypeUtils().erasure(annotation.getAnnotationType()) + ".class, "
+            + "java.util.Map.<String, Object>ofEntries(" + members + "))";
+    }
+
+    private String value(ExecutableElement member, AnnotationValue value) {
+        return value.accept(new SimpleAnnotationValueVisitor9<String, TypeMirror>() {
+            @Override
+            protected String defaultAction(Object o, TypeMirror type) {
+                return env.getElementUtils().getConstantExpression(o);
+            }
+
+            @Override
+            public String visitType(TypeMirror t, TypeMirror type) {
+                return env.getTypeUtils().erasure(t) + ".class";
+            }
+
+            @Override
+            public String visitEnumConstant(VariableElement c, TypeMirror type) {
+                return ((TypeElement) c.getEnclosingElement()).getQualifiedName() + "." + c.getSimpleName();
+            }
+
+            @Override
+            public String visitArray(List<? extends AnnotationValue> values, TypeMirror type) {
+                TypeMirror component = ((ArrayType) type).getComponentType();
+                return "new " + env.getTypeUtils().erasure(component) + "[] {"
+                    + values.stream().map(v -> v.accept(this, component)).collect(Collectors.joining(", ")) + "}";
+            }
+
+            @Override
+            public String visitAnnotation(AnnotationMirror a, TypeMirror type) {
+                throw new InjectProcessor.UnsupportedComponentException("annotation valued qualifier member " + member.getSimpleName());
+            }
+        }, member.getReturnType());
+    }
+}
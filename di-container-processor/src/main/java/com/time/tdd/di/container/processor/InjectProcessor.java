@@ -0,0 +1,251 @@
+package com.time.tdd.di.container.processor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+/**
+ * classes the generated code could not wire like the reflective InjectionProvider are skipped with a note
+ *
+ * @author XuJian
+ * @date 2023-03-13 21:40
+ **/
+@SupportedAnnotationTypes(InjectProcessor.INJECT)
+public class InjectProcessor extends AbstractProcessor {
+    static final String INJECT = "jakarta.inject.Inject";
+    static final String QUALIFIER = "jakarta.inject.Qualifier";
+    static final Set<String> LIFECYCLE = Set.of("jakarta.annotation.PostConstruct", "jakarta.annotation.PreDestroy");
+    static final String SUFFIX = "_ComponentProvider";
+
+    private static String nameOf(AnnotationMirror annotation) {
+        return ((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().toString();
+    }
+
+    private static boolean isInject(Element element) {
+        return element.getAnnotationMirrors().stream().anyMatch(a -> nameOf(a).equals(INJECT));
+    }
+
+    private static boolean isQualifier(AnnotationMirror annotation) {
+        return annotation.getAnnotationType().asElement().getAnnotationMirrors().stream().anyMatch(a -> nameOf(a).equals(QUALIFIER));
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        for (TypeElement annotation : annotations) {
+            round.getElementsAnnotatedWith(annotation).stream().map(Element::getEnclosingElement)
+                .filter(e -> e.getKind() == ElementKind.CLASS).map(TypeElement.class::cast).distinct()
+                .forEach(this::generate);
+        }
+        return false;
+    }
+
+    private void generate(TypeElement component) {
+        try {
+            String source = new ComponentProviderWriter(processingEnv, wiringOf(component)).write();
+            String name = processingEnv.getElementUtils().getBinaryName(component) + SUFFIX;
+            try (Writer writer = processingEnv.getFiler().createSourceFile(name, component).openWriter()) {
+                writer.write(source);
+            }
+        } catch (UnsupportedComponentException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                "no component provider generated, falls back to reflection: " + e.getMessage(), component);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Wiring wiringOf(TypeElement component) {
+        if (component.getModifiers().contains(Modifier.ABSTRACT) || !component.getTypeParameters().isEmpty()) {
+            throw new UnsupportedComponentException("abstract or generic component");
+        }
+        if (component.getNestingKind() != NestingKind.TOP_LEVEL
+            && (component.getNestingKind() != NestingKind.MEMBER || !component.getModifiers().contains(Modifier.STATIC))) {
+            throw new UnsupportedComponentException("inner, local or anonymous component");
+        }
+        if (!isAccessible(component, component)) {
+            throw new UnsupportedComponentException("component not accessible from its package");
+        }
+        List<TypeElement> hierarchy = hierarchyOf(component);
+        if (hierarchy.stream().flatMap(type -> ElementFilter.methodsIn(type.getEnclosedElements()).stream())
+            .anyMatch(method -> method.getAnnotationMirrors().stream().anyMatch(a -> LIFECYCLE.contains(nameOf(a))))) {
+            throw new UnsupportedComponentException("lifecycle callbacks");
+        }
+        return new Wiring(component, injectConstructor(component), injectFields(component, hierarchy),
+            injectMethods(component, hierarchy));
+    }
+
+    private List<TypeElement> hierarchyOf(TypeElement component) {
+        List<TypeElement> hierarchy = new ArrayList<>();
+        TypeElement current = component;
+        while (!current.getQualifiedName().contentEquals(Object.class.getName())) {
+            hierarchy.add(current);
+            TypeMirror superclass = current.getSuperclass();
+            if (superclass.getKind() != TypeKind.DECLARED) {
+                break;
+            }
+            current = (TypeElement) ((DeclaredType) superclass).asElement();
+        }
+        return hierarchy;
+    }
+
+    private ExecutableElement injectConstructor(TypeElement component) {
+        List<ExecutableElement> constructors = ElementFilter.constructorsIn(component.getEnclosedElements());
+        List<ExecutableElement> injectConstructors =
+            constructors.stream().filter(c -> c.getModifiers().contains(Modifier.PUBLIC)).filter(InjectProcessor::isInject).toList();
+        if (injectConstructors.size() > 1) {
+            throw new UnsupportedComponentException("multiple inject constructors");
+        }
+        ExecutableElement constructor = injectConstructors.stream().findFirst()
+            .or(() -> constructors.stream().filter(c -> c.getParameters().isEmpty()).findFirst())
+            .orElseThrow(() -> new UnsupportedComponentException("no inject nor default constructor"));
+        checkMember(component, constructor);
+        constructor.getParameters().forEach(p -> checkDependency(component, p.asType()));
+        return constructor;
+    }
+
+    private List<VariableElement> injectFields(TypeElement component, List<TypeElement> hierarchy) {
+        List<VariableElement> fields = new ArrayList<>();
+        for (TypeElement current : hierarchy) {
+            ElementFilter.fieldsIn(current.getEnclosedElements()).stream().filter(InjectProcessor::isInject).forEach(fields::add);
+        }
+        for (VariableElement field : fields) {
+            if (field.getModifiers().contains(Modifier.FINAL) || field.getModifiers().contains(Modifier.STATIC)) {
+                throw new UnsupportedComponentException("final or static inject field " + field.getSimpleName());
+            }
+            checkMember(component, field);
+            checkDependency(component, field.asType());
+        }
+        return fields;
+    }
+
+    private List<ExecutableElement> injectMethods(TypeElement component, List<TypeElement> hierarchy) {
+        List<ExecutableElement> methods = new ArrayList<>();
+        List<ExecutableElement> componentMethods = ElementFilter.methodsIn(component.getEnclosedElements());
+        for (TypeElement current : hierarchy) {
+            List<ExecutableElement> found = ElementFilter.methodsIn(current.getEnclosedElements()).stream()
+                .filter(InjectProcessor::isInject)
+                .filter(m -> methods.stream().noneMatch(o -> isOverride(m, o)))
+                .filter(m -> componentMethods.stream().filter(o -> !isInject(o)).noneMatch(o -> isOverride(m, o)))
+                .toList();
+            methods.addAll(found);
+        }
+        Collections.reverse(methods);
+        for (ExecutableElement method : methods) {
+            if (!method.getTypeParameters().isEmpty() || method.getModifiers().contains(Modifier.STATIC)) {
+                throw new UnsupportedComponentException("generic or static inject method " + method.getSimpleName());
+            }
+            checkMember(component, method);
+            method.getParameters().forEach(p -> checkDependency(component, p.asType()));
+        }
+        return methods;
+    }
+
+    private boolean isOverride(ExecutableElement m, ExecutableElement o) {
+        if (!o.getSimpleName().equals(m.getSimpleName()) || o.getParameters().size() != m.getParameters().size()) {
+            return false;
+        }
+        for (int i = 0; i < m.getParameters().size(); i++) {
+            if (!processingEnv.getTypeUtils().isSameType(processingEnv.getTypeUtils().erasure(m.getParameters().get(i).asType()),
+                processingEnv.getTypeUtils().erasure(o.getParameters().get(i).asType()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void checkMember(TypeElement component, Element member) {
+        TypeElement declaring = (TypeElement) member.getEnclosingElement();
+        boolean accessible = !member.getModifiers().contains(Modifier.PRIVATE)
+            && (isSamePackage(component, declaring) || member.getModifiers().contains(Modifier.PUBLIC) && isAccessible(component, declaring));
+        if (!accessible) {
+            throw new UnsupportedComponentException("member not accessible from component package " + member.getSimpleName());
+        }
+        long qualifiers = qualifiersOf(member).size();
+        if (member instanceof ExecutableElement executable) {
+            qualifiers = executable.getParameters().stream().mapToLong(p -> qualifiersOf(p).size()).max().orElse(0);
+        }
+        if (qualifiers > 1) {
+            throw new UnsupportedComponentException("multiple qualifiers on " + member.getSimpleName());
+        }
+    }
+
+    static List<AnnotationMirror> qualifiersOf(Element element) {
+        return element.getAnnotationMirrors().stream().filter(InjectProcessor::isQualifier).<AnnotationMirror>map(a -> a).toList();
+    }
+
+    private void checkDependency(TypeElement component, TypeMirror type) {
+        switch (type.getKind()) {
+            case BOOLEAN, BYTE, SHORT, INT, LONG, CHAR, FLOAT, DOUBLE -> {
+            }
+            case ARRAY -> checkDependency(component, ((ArrayType) type).getComponentType());
+            case DECLARED -> {
+                DeclaredType declared = (DeclaredType) type;
+                if (!isAccessible(component, (TypeElement) declared.asElement())) {
+                    throw new UnsupportedComponentException("dependency not accessible " + type);
+                }
+                for (TypeMirror argument : declared.getTypeArguments()) {
+                    if (argument.getKind() != TypeKind.DECLARED || !((DeclaredType) argument).getTypeArguments().isEmpty()) {
+                        throw new UnsupportedComponentException("unsupported dependency type " + type);
+                    }
+                    checkDependency(component, argument);
+                }
+            }
+            default -> throw new UnsupportedComponentException("unsupported dependency type " + type);
+        }
+    }
+
+    private boolean isAccessible(TypeElement component, TypeElement type) {
+        for (Element current = type; current instanceof TypeElement; current = current.getEnclosingElement()) {
+            boolean accessible = isSamePackage(component, (TypeElement) current)
+                ? !current.getModifiers().contains(Modifier.PRIVATE)
+                : current.getModifiers().contains(Modifier.PUBLIC);
+            if (!accessible) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isSamePackage(TypeElement component, TypeElement type) {
+        return processingEnv.getElementUtils().getPackageOf(component).equals(processingEnv.getElementUtils().getPackageOf(type));
+    }
+
+    record Wiring(TypeElement component, ExecutableElement constructor, List<VariableElement> fields,
+                  List<ExecutableElement> methods) {
+    }
+
+    static class UnsupportedComponentException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        UnsupportedComponentException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.time.tdd.di.container.processor;
+
+import com.time.tdd.di.container.Component;
+import com.time.tdd.di.container.ComponentProvider;
+import com.time.tdd.di.container.ComponentRef;
+import com.time.tdd.di.container.ContextConfig;
+import com.time.tdd.di.container.Qualifiers;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import jakarta.inject.Named;
+import jakarta.inject.Provider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author XuJian
+ * @date 2023-03-14 20:12
+ **/
+public class InjectProcessorTest {
+    private Path output;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        output = Files.createTempDirectory("inject-processor");
+    }
+
+    @Test
+    void should_generate_component_provider_with_precomputed_dependencies() throws Exception {
+        ClassLoader loader = compile("""
+            package sample;
+            public interface Dependency {
+            }
+            """, """
+            package sample;
+            import jakarta.inject.Inject;
+            import jakarta.inject.Named;
+            import jakarta.inject.Provider;
+            public class Component {
+                Dependency constructed;
+                @Inject @Named("field") Dependency field;
+                Provider<Dependency> installed;
+
+                @Inject
+                public Component(Dependency dependency) {
+                    this.constructed = dependency;
+                }
+
+                @Inject
+                void install(Provider<Dependency> dependency) {
+                    this.installed = dependency;
+                }
+            }
+            """);
+
+        Class<?> generated = loader.loadClass("sample.Component" + InjectProcessor.SUFFIX);
+        Class<?> dependencyType = loader.loadClass("sample.Dependency");
+        ComponentProvider<?> provider = (ComponentProvider<?>) generated.getConstructor().newInstance();
+        Named qualifier = Qualifiers.of(Named.class, Map.of("value", "field"));
+
+        assertEquals(List.of(new Component(dependencyType, null), new Component(dependencyType, qualifier),
+            new Component(dependencyType, null)), provider.getDependencies().stream().map(ComponentRef::component).toList());
+        assertEquals(Provider.class, provider.getDependencies().get(2).getContainer());
+    }
+
+    @Test
+    void should_bind_component_through_generated_provider() throws Exception {
+        ClassLoader loader = compile("""
+            package sample;
+            import jakarta.inject.Inject;
+            import jakarta.inject.Named;
+            public class Component implements Runnable {
+                @Inject @Named("field") Object field;
+                Object constructed;
+
+                @Inject
+                public Component(Object dependency) {
+                    this.constructed = dependency;
+                }
+
+                @Override
+                public void run() {
+                }
+            }
+            """);
+        Class<Runnable> component = (Class<Runnable>) loader.loadClass("sample.Component");
+        Object dependency = new Object();
+        Object named = new Object();
+
+        ContextConfig config = new ContextConfig();
+        config.bind(Object.class, dependency);
+        config.bind(Object.class, named, Qualifiers.of(Named.class, Map.of("value", "field")));
+        config.bind(Runnable.class, component);
+        Runnable instance = config.getContext().get(ComponentRef.of(Runnable.class)).get();
+
+        assertSame(dependency, valueOf(instance, "constructed"));
+        assertSame(named, valueOf(instance, "field"));
+    }
+
+    @Test
+    void should_not_generate_component_provider_if_member_not_accessible() throws Exception {
+        compile("""
+            package sample;
+            import jakarta.inject.Inject;
+            public class Component {
+                @Inject
+                private Object dependency;
+            }
+            """);
+
+        assertFalse(Files.exists(output.resolve("sample/Component" + InjectProcessor.SUFFIX + ".class")));
+    }
+
+    @Test
+    void should_not_generate_component_provider_if_component_has_lifecycle_callbacks() throws Exception {
+        compile("""
+            package sample;
+            import jakarta.annotation.PostConstruct;
+            import jakarta.inject.Inject;
+            public class Component {
+                @Inject
+                Object dependency;
+
+                @PostConstruct
+                void start() {
+                }
+            }
+            """);
+
+        assertFalse(Files.exists(output.resolve("sample/Component" + InjectProcessor.SUFFIX + ".class")));
+    }
+
+    @Test
+    void should_build_qualifier_equal_to_declared_one() throws Exception {
+        Named declared = Declared.class.getDeclaredField("dependency").getAnnotation(Named.class);
+        Named built = Qualifiers.of(Named.class, Map.of("value", "declared"));
+
+        assertEquals(declared, built);
+        assertEquals(built, declared);
+        assertEquals(declared.hashCode(), built.hashCode());
+    }
+
+    private Object valueOf(Object instance, String name) throws ReflectiveOperationException {
+        Field field = instance.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(instance);
+    }
+
+    private ClassLoader compile(String... sources) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        List<JavaFileObject> units = Arrays.stream(sources).<JavaFileObject>map(Source::new).toList();
+        boolean success = compiler.getTask(null, null, null,
+            List.of("-d", output.toString(), "-s", output.toString(), "-classpath", System.getProperty("java.class.path"),
+                "-processor", InjectProcessor.class.getName()), null, units).call();
+        assertTrue(success);
+        return new URLClassLoader(new URL[] {output.toUri().toURL()}, getClass().getClassLoader());
+    }
+
+    static class Declared {
+        @Named("declared")
+        Provider<Object> dependency;
+    }
+
+    static class Source extends SimpleJavaFileObject {
+        private final String code;
+
+        Source(String code) {
+            super(URI.create("string:///" + nameOf(code).replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.code = code;
+        }
+
+        private static String nameOf(String code) {
+            String packageName = code.substring(code.indexOf("package ") + 8, code.indexOf(';'));
+            String rest = code.substring(code.indexOf(" class ") >= 0 ? code.indexOf(" class ") + 7 : code.indexOf(" interface ") + 11);
+            return packageName + "." + rest.substring(0, rest.indexOf(' '));
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return code;
+        }
+    }
+}
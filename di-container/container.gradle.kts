@@ -2,12 +2,14 @@ plugins {
     id("com.time.tdd.java-conventions")
     alias(libs.plugins.springBoot)
     alias(libs.plugins.springDependencyManagement)
+    alias(libs.plugins.jmh)
 }
 
 dependencies {
     implementation(libs.lombok)
 
     implementation("jakarta.inject:jakarta.inject-api:2.0.1")
+    implementation("jakarta.annotation:jakarta.annotation-api:2.1.1")
     testImplementation("org.junit.jupiter:junit-jupiter-api:5.8.2")
     testImplementation("org.junit.jupiter:junit-jupiter-params:5.8.2")
     testRuntimeOnly("org.junit.jupiter:junit-jupiter-engine:5.8.2")
@@ -16,4 +18,13 @@ dependencies {
     testImplementation("org.mockito:mockito-core:4.3.1")
     testImplementation("jakarta.inject:jakarta.inject-tck:2.0.1")
 
-}
\ No newline at end of file
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh.get())
+    jvmArgsAppend.add("--enable-preview")
+    // -Pjmh.includes=ContextBenchmark to run a subset; results are kept as json to diff across commits
+    (project.findProperty("jmh.includes") as String?)?.let { includes.add(it) }
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("reports/jmh/results.json"))
+}
@@ -0,0 +1,77 @@
+package com.time.tdd.di.container;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import jakarta.inject.Named;
+
+/**
+ * a child context binding one component on top of a large parent, against building the whole context again
+ *
+ * @author XuJian
+ * @date 2023-03-18 17:05
+ **/
+@Fork(1)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ChildContextBenchmark {
+    @Param({"100", "10000"})
+    int parentSize;
+
+    ContextConfig config;
+    Context parent;
+    Named request;
+
+    @Setup
+    public void setup() {
+        config = new ContextConfig();
+        for (int i = 0; i < parentSize; i++) {
+            Named qualifier = Qualifiers.of(Named.class, Map.of("value", String.valueOf(i)));
+            config.bind(new Component(Object.class, qualifier), dependingOn(i == 0 ? List.of() : List.of(ComponentRef.of(Object.class,
+                Qualifiers.of(Named.class, Map.of("value", String.valueOf(i - 1)))))));
+        }
+        parent = config.getContext();
+        request = Qualifiers.of(Named.class, Map.of("value", "request"));
+    }
+
+    private static ComponentProvider<Object> dependingOn(List<ComponentRef<?>> dependencies) {
+        return new ComponentProvider<>() {
+            @Override
+            public Object get(Context context) {
+                return new Object();
+            }
+
+            @Override
+            public List<ComponentRef<?>> getDependencies() {
+                return dependencies;
+            }
+        };
+    }
+
+    @Benchmark
+    public Context child() {
+        ContextConfig child = new ContextConfig(parent);
+        child.bind(new Component(Object.class, request),
+            dependingOn(List.of(ComponentRef.of(Object.class, Qualifiers.of(Named.class, Map.of("value", "0"))))));
+        return child.getContext();
+    }
+
+    @Benchmark
+    public Context rebuild() {
+        return config.getContext();
+    }
+}
@@ -0,0 +1,202 @@
+package com.time.tdd.di.container;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.inject.Provider;
+import jakarta.inject.Singleton;
+
+/**
+ * single threaded costs of binding, getting a context and getting components
+ *
+ * @author XuJian
+ * @date 2023-03-21 20:30
+ **/
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ContextBenchmark {
+
+    /**
+     * width components in each of depth layers, every component depending on two of the layer below
+     */
+    @State(Scope.Benchmark)
+    public static class Graph {
+        @Param({"10", "100"})
+        int width;
+
+        @Param({"2", "10", "100"})
+        int depth;
+
+        ContextConfig config;
+
+        @Setup
+        public void setup() {
+            config = new ContextConfig();
+            for (int layer = 0; layer < depth; layer++) {
+                for (int i = 0; i < width; i++) {
+                    List<ComponentRef<?>> dependencies = new ArrayList<>();
+                    if (layer > 0) {
+                        dependencies.add(ComponentRef.of(Object.class, name(layer - 1, i)));
+                        dependencies.add(ComponentRef.of(Object.class, name(layer - 1, (i + 1) % width)));
+                    }
+                    config.bind(new Component(Object.class, name(layer, i)), new ComponentProvider<>() {
+                        @Override
+                        public Object get(Context context) {
+                            return new Object();
+                        }
+
+                        @Override
+                        public List<ComponentRef<?>> getDependencies() {
+                            return dependencies;
+                        }
+                    });
+                }
+            }
+        }
+
+        private static Named name(int layer, int index) {
+            return Qualifiers.of(Named.class, Map.of("value", layer + ":" + index));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Components {
+        Context context;
+        ComponentRef<Prototype> prototype = ComponentRef.of(Prototype.class);
+        ComponentRef<SingletonComponent> singleton = ComponentRef.of(SingletonComponent.class);
+        ComponentRef<Provider<Leaf>> provider = new ComponentRef<>() {
+        };
+        ComponentRef<Leaf> qualified = ComponentRef.of(Leaf.class, Qualifiers.of(Named.class, Map.of("value", "qualified")));
+        ComponentRef<List<Leaf>> collection = new ComponentRef<>() {
+        };
+        ComponentHandle<SingletonComponent> singletonHandle;
+        ComponentHandle<Provider<Leaf>> providerHandle;
+
+        @Setup
+        public void setup() {
+            ContextConfig config = new ContextConfig();
+            config.bind(Leaf.class, Leaf.class);
+            config.bind(Leaf.class, Leaf.class, Qualifiers.of(Named.class, Map.of("value", "qualified")));
+            config.bind(Prototype.class, Prototype.class);
+            config.bind(SingletonComponent.class, SingletonComponent.class);
+            config.bind(ProviderConsumer.class, ProviderConsumer.class);
+            context = config.getContext();
+            singletonHandle = context.handle(singleton);
+            providerHandle = context.handle(provider);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public ContextConfig bind() {
+        ContextConfig config = new ContextConfig();
+        config.bind(Leaf.class, Leaf.class);
+        config.bind(Prototype.class, Prototype.class);
+        config.bind(SingletonComponent.class, SingletonComponent.class);
+        config.bind(ProviderConsumer.class, ProviderConsumer.class);
+        return config;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Context getContext(Graph graph) {
+        return graph.config.getContext();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Object prototype(Components components) {
+        return components.context.get(components.prototype).get();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Object singleton(Components components) {
+        return components.context.get(components.singleton).get();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Object singletonHandle(Components components) {
+        return components.singletonHandle.get();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Object providerHandle(Components components) {
+        return components.providerHandle.get().get();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Object provider(Components components) {
+        return components.context.get(components.provider).get().get();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Object collection(Components components) {
+        return components.context.get(components.collection).get();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Object qualified(Components components) {
+        return components.context.get(components.qualified).get();
+    }
+
+    public static class Leaf {
+    }
+
+    public static class Prototype {
+        final Leaf leaf;
+
+        @Inject
+        public Prototype(Leaf leaf) {
+            this.leaf = leaf;
+        }
+    }
+
+    @Singleton
+    public static class SingletonComponent {
+        final Prototype prototype;
+
+        @Inject
+        public SingletonComponent(Prototype prototype) {
+            this.prototype = prototype;
+        }
+    }
+
+    public static class ProviderConsumer {
+        final Provider<Leaf> leaf;
+
+        @Inject
+        public ProviderConsumer(Provider<Leaf> leaf) {
+            this.leaf = leaf;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.time.tdd.di.container;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import jakarta.inject.Named;
+
+/**
+ * synthetic acyclic graphs, every node depending on a few random earlier ones
+ *
+ * @author XuJian
+ * @date 2023-03-18 15:20
+ **/
+@Fork(1)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class DependencyCheckBenchmark {
+    private static final int DEPENDENCIES = 4;
+
+    @Param({"1000", "10000", "100000"})
+    int nodes;
+
+    ContextConfig config;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        List<Annotation> qualifiers = new ArrayList<>(nodes);
+        config = new ContextConfig();
+        for (int i = 0; i < nodes; i++) {
+            qualifiers.add(Qualifiers.of(Named.class, Map.of("value", String.valueOf(i))));
+            List<ComponentRef<?>> dependencies = new ArrayList<>();
+            for (int j = 0; i > 0 && j < DEPENDENCIES; j++) {
+                dependencies.add(ComponentRef.of(Object.class, qualifiers.get(random.nextInt(i))));
+            }
+            config.bind(new Component(Object.class, qualifiers.get(i)), new ComponentProvider<>() {
+                @Override
+                public Object get(Context context) {
+                    return new Object();
+                }
+
+                @Override
+                public List<ComponentRef<?>> getDependencies() {
+                    return dependencies;
+                }
+            });
+        }
+    }
+
+    @Benchmark
+    public ContextConfig checkDependencies() {
+        config.checkDependencies();
+        return config;
+    }
+}
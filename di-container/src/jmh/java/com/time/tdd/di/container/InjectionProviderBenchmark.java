@@ -0,0 +1,85 @@
+package com.time.tdd.di.container;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import jakarta.inject.Inject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * prototype construction, against the reflective path it replaced
+ *
+ * @author XuJian
+ * @date 2023-03-12 10:02
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InjectionProviderBenchmark {
+
+    private Context context;
+    private InjectionProvider<Prototype> provider;
+
+    private Constructor<Prototype> constructor;
+    private Field field;
+    private Method method;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        ContextConfig config = new ContextConfig();
+        config.bind(Dependency.class, new Dependency());
+        context = config.getContext();
+        provider = new InjectionProvider<>(Prototype.class);
+
+        constructor = Prototype.class.getConstructor(Dependency.class);
+        field = Prototype.class.getDeclaredField("field");
+        method = Prototype.class.getDeclaredMethod("install", Dependency.class);
+    }
+
+    @Benchmark
+    public Prototype reflective() throws ReflectiveOperationException {
+        Dependency dependency = context.get(ComponentRef.of(Dependency.class)).get();
+        Prototype instance = constructor.newInstance(dependency);
+        field.set(instance, context.get(ComponentRef.of(Dependency.class)).get());
+        method.invoke(instance, context.get(ComponentRef.of(Dependency.class)).get());
+        return instance;
+    }
+
+    @Benchmark
+    public Prototype compiled() {
+        return provider.get(context);
+    }
+
+    static class Dependency {
+    }
+
+    static class Prototype {
+        final Dependency constructed;
+        @Inject
+        Dependency field;
+        Dependency installed;
+
+        @Inject
+        public Prototype(Dependency dependency) {
+            this.constructed = dependency;
+        }
+
+        @Inject
+        void install(Dependency dependency) {
+            this.installed = dependency;
+        }
+    }
+}
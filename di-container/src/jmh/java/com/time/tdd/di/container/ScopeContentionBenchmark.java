@@ -0,0 +1,76 @@
+package com.time.tdd.di.container;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import jakarta.inject.Singleton;
+
+/**
+ * scoped components got from one context by many threads
+ *
+ * @author XuJian
+ * @date 2023-03-21 21:10
+ **/
+@Fork(1)
+@Threads(8)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ScopeContentionBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Scoped {
+        Context context;
+        ComponentRef<SingletonComponent> singleton = ComponentRef.of(SingletonComponent.class);
+        ComponentRef<PooledComponent> pooled = ComponentRef.of(PooledComponent.class);
+        ComponentRef<RequestComponent> request = ComponentRef.of(RequestComponent.class);
+
+        @Setup
+        public void setup() {
+            ContextConfig config = new ContextConfig();
+            config.bind(SingletonComponent.class, SingletonComponent.class);
+            config.bind(PooledComponent.class, PooledComponent.class);
+            config.bind(RequestComponent.class, RequestComponent.class);
+            context = config.getContext();
+        }
+    }
+
+    @Benchmark
+    public Object singleton(Scoped scoped) {
+        return scoped.context.get(scoped.singleton).get();
+    }
+
+    @Benchmark
+    public Object pooled(Scoped scoped) {
+        PooledComponent component = scoped.context.get(scoped.pooled).get();
+        scoped.context.release(scoped.pooled, component);
+        return component;
+    }
+
+    @Benchmark
+    public Object request(Scoped scoped) throws Exception {
+        return RequestScope.call(() -> scoped.context.get(scoped.request).get());
+    }
+
+    @Singleton
+    public static class SingletonComponent {
+    }
+
+    @Pool(max = 8, timeoutMillis = 1000)
+    public static class PooledComponent {
+    }
+
+    @RequestScoped
+    public static class RequestComponent {
+    }
+}
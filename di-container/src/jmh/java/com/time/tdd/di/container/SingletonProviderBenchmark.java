@@ -0,0 +1,73 @@
+package com.time.tdd.di.container;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * racing on the first access to an expensive singleton, and reading it once constructed
+ *
+ * @author XuJian
+ * @date 2023-03-16 21:45
+ **/
+@Fork(1)
+@Threads(8)
+public class SingletonProviderBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class FirstAccess {
+        Context context;
+        SingletonProvider<Object> provider;
+
+        @Setup(Level.Iteration)
+        public void setup() {
+            context = new ContextConfig().getContext();
+            provider = new SingletonProvider<>(c -> {
+                Blackhole.consumeCPU(100_000);
+                return new Object();
+            });
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class SteadyState {
+        Context context;
+        SingletonProvider<Object> provider;
+
+        @Setup
+        public void setup() {
+            context = new ContextConfig().getContext();
+            provider = new SingletonProvider<>(c -> new Object());
+            provider.get(context);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 20, batchSize = 1)
+    @Measurement(iterations = 100, batchSize = 1)
+    public Object firstAccess(FirstAccess state) {
+        return state.provider.get(state.context);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public Object steadyState(SteadyState state) {
+        return state.provider.get(state.context);
+    }
+}
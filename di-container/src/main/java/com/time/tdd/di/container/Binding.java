@@ -0,0 +1,274 @@
+package com.time.tdd.di.container;
+
+import com.time.tdd.di.container.exceptions.ScopeMismatchException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+import jakarta.inject.Provider;
+
+/**
+ * @author XuJian
+ * @date 2023-03-15 21:10
+ **/
+class Binding<T> implements Context, ComponentHandle<T> {
+    private final int id;
+    private final Component component;
+    private final ComponentProvider<T> provider;
+    private final Context context;
+    private final StatisticsRecorder statistics;
+    private final Provider<T> asProvider = this::get;
+    private final ComponentHandle<Provider<T>> providerHandle = new ComponentHandle<>() {
+        @Override
+        public Provider<T> get() {
+            return asProvider;
+        }
+
+        @Override
+        public Component component() {
+            return component;
+        }
+    };
+    private final AtomicReference<CompletableFuture<T>> construction = new AtomicReference<>();
+    private Object[] dependencies;
+    private boolean[] taken;
+    private Binding<?> held;
+
+    Binding(int id, Component component, ComponentProvider<T> provider, Context context, StatisticsRecorder statistics) {
+        this.id = id;
+        this.component = component;
+        this.provider = provider;
+        this.context = context;
+        this.statistics = statistics;
+    }
+
+    /**
+     * a slot holds a binding, a provider, a {@link Deferred} or a {@link Multibinding}, or null to look the dependency
+     * up on use
+     */
+    void link(ResolvedContext resolved) {
+        List<ComponentRef<?>> refs = provider.getDependencies();
+        dependencies = new Object[refs.size()];
+        for (int i = 0; i < dependencies.length; i++) {
+            ComponentRef<?> ref = refs.get(i);
+            if (ref.isCollection()) {
+                dependencies[i] = resolved.multibinding(ref.component());
+                continue;
+            }
+            Binding<?> dependency = resolved.binding(ref.component());
+            if (dependency == null) {
+                continue;
+            }
+            if (!ref.isContainer()) {
+                dependencies[i] = dependency;
+            } else if (ref.getContainer() == Provider.class) {
+                dependencies[i] = dependency.asProvider();
+            } else if (ref.getContainer() == Lazy.class) {
+                dependencies[i] = new Deferred(dependency);
+            }
+        }
+    }
+
+    /**
+     * provider and lazy dependencies are left out
+     */
+    Stream<Binding<?>> required() {
+        return Arrays.stream(dependencies).flatMap(dependency -> {
+            if (dependency instanceof Binding<?> binding) {
+                return Stream.of(binding);
+            }
+            if (dependency instanceof Multibinding multibinding) {
+                return multibinding.elements();
+            }
+            return Stream.empty();
+        });
+    }
+
+    /**
+     * called dependencies first
+     *
+     * @throws ScopeMismatchException if an instance would be held longer than its scope
+     */
+    void checkScope() {
+        Lifetime lifetime = Lifetime.of(provider);
+        for (Binding<?> dependency : (Iterable<Binding<?>>) required()::iterator) {
+            Binding<?> captured = dependency.captured();
+            if (captured == null) {
+                continue;
+            }
+            Lifetime shortest = Lifetime.of(captured.provider);
+            if (shortest == Lifetime.POOL || lifetime != null && shortest.compareTo(lifetime) < 0) {
+                throw new ScopeMismatchException(component, captured.component);
+            }
+            if (held == null || shortest.compareTo(Lifetime.of(held.provider)) < 0) {
+                held = captured;
+            }
+        }
+    }
+
+    /**
+     * null if no instance held is scoped
+     */
+    private Binding<?> captured() {
+        return Lifetime.of(provider) != null ? this : held;
+    }
+
+    boolean isSingleton() {
+        return provider instanceof SingletonProvider<?>;
+    }
+
+    int id() {
+        return id;
+    }
+
+    @Override
+    public Component component() {
+        return component;
+    }
+
+    /**
+     * null if the context does not collect statistics
+     */
+    StatisticsRecorder recorder() {
+        return statistics;
+    }
+
+    ComponentProvider<T> provider() {
+        return provider;
+    }
+
+    Provider<T> asProvider() {
+        return asProvider;
+    }
+
+    Lazy<T> asLazy() {
+        return new LazyInstance<>(asProvider);
+    }
+
+    ComponentHandle<Provider<T>> providerHandle() {
+        return providerHandle;
+    }
+
+    @Override
+    public T get() {
+        return ComponentEvents.resolve(this);
+    }
+
+    /**
+     * concurrent gets of a singleton being constructed share the construction
+     */
+    CompletableFuture<T> getAsync(Executor executor) {
+        if (provider.isConstructed()) {
+            return CompletableFuture.supplyAsync(this::get, executor);
+        }
+        if (!(provider instanceof SingletonProvider<?>)) {
+            return construct(executor);
+        }
+        CompletableFuture<T> pending = new CompletableFuture<>();
+        CompletableFuture<T> existing = construction.compareAndExchange(null, pending);
+        if (existing != null) {
+            return existing;
+        }
+        construct(executor).whenComplete((instance, failure) -> {
+            construction.set(null);
+            if (failure != null) {
+                pending.completeExceptionally(failure);
+            } else {
+                pending.complete(instance);
+            }
+        });
+        return pending;
+    }
+
+    private CompletableFuture<T> construct(Executor executor) {
+        if (dependencies.length == 0) {
+            return CompletableFuture.supplyAsync(this::get, executor);
+        }
+        CompletableFuture<?>[] prefetched = new CompletableFuture<?>[dependencies.length];
+        for (int i = 0; i < prefetched.length; i++) {
+            int index = i;
+            Object dependency = dependencies[i];
+            if (dependency instanceof Binding<?> binding) {
+                prefetched[i] = binding.getAsync(executor);
+            } else if (dependency instanceof Multibinding multibinding && multibinding.singletons()) {
+                prefetched[i] = CompletableFuture.supplyAsync(() -> dependency(index), executor);
+            } else {
+                prefetched[i] = CompletableFuture.completedFuture(dependency);
+            }
+        }
+        return CompletableFuture.allOf(prefetched).handleAsync((done, failure) -> {
+            Binding<T> binding = new Binding<>(id, component, provider, context, statistics);
+            binding.dependencies = Arrays.stream(prefetched)
+                .map(future -> future.isCompletedExceptionally() ? null : future.join()).toArray();
+            binding.taken = new boolean[prefetched.length];
+            try {
+                if (failure != null) {
+                    throw failure instanceof CompletionException completion ? completion : new CompletionException(failure);
+                }
+                return binding.get();
+            } finally {
+                for (int i = 0; i < prefetched.length; i++) {
+                    if (!binding.taken[i] && dependencies[i] instanceof Binding<?> dependency
+                        && !prefetched[i].isCompletedExceptionally()) {
+                        dependency.discard(binding.dependencies[i]);
+                    }
+                }
+            }
+        }, executor);
+    }
+
+    /**
+     * an instance got ahead that went unused, scoped ones are left to their scope
+     */
+    @SuppressWarnings("unchecked")
+    private void discard(Object instance) {
+        Lifetime lifetime = Lifetime.of(provider);
+        if (lifetime == Lifetime.POOL) {
+            ((PooledProvider<T>) provider).release((T) instance);
+        } else if (lifetime == null) {
+            provider.destroy((T) instance);
+        }
+    }
+
+    Object dependency(int index) {
+        if (taken != null) {
+            taken[index] = true;
+        }
+        Object dependency = dependencies[index];
+        if (dependency instanceof Binding<?> binding) {
+            return binding.get();
+        }
+        if (dependency instanceof Multibinding multibinding) {
+            return multibinding.get(provider.getDependencies().get(index).getContainer());
+        }
+        if (dependency instanceof Deferred deferred) {
+            return deferred.binding().asLazy();
+        }
+        if (dependency == null) {
+            return context.get(provider.getDependencies().get(index)).get();
+        }
+        return dependency;
+    }
+
+    /**
+     * refs of {@link ComponentProvider#getDependencies()} are got from their slots
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <ComponentType> Optional<ComponentType> get(ComponentRef<ComponentType> ref) {
+        List<ComponentRef<?>> refs = provider.getDependencies();
+        for (int i = 0; i < dependencies.length; i++) {
+            if (refs.get(i) == ref) {
+                return Optional.of((ComponentType) dependency(i));
+            }
+        }
+        return context.get(ref);
+    }
+
+    private record Deferred(Binding<?> binding) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.time.tdd.di.container;
+
+/**
+ * @param size    instances kept
+ * @param hits    gets given a kept instance
+ * @param misses  gets constructing an instance
+ * @param evicted instances dropped for being least recently used or older than the ttl
+ * @param cleared instances cleared by the collector under memory pressure
+ * @author XuJian
+ * @date 2023-03-26 14:20
+ **/
+public record CacheMetrics(int maxSize, int size, long hits, long misses, long evicted, long cleared) {
+
+    public double hitRate() {
+        long gets = hits + misses;
+        return gets == 0 ? 0 : (double) hits / gets;
+    }
+}
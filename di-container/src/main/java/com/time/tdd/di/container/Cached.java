@@ -0,0 +1,27 @@
+package com.time.tdd.di.container;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import jakarta.inject.Scope;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * shared instances, destroyed when evicted beyond maxSize or older than the ttl
+ *
+ * @author XuJian
+ * @date 2023-03-26 14:10
+ **/
+@Scope
+@Documented
+@Retention(RUNTIME)
+public @interface Cached {
+    /**
+     * instances kept, the least recently used evicted beyond it
+     */
+    int maxSize() default 16;
+
+    /**
+     * how long an instance is used before being constructed again, 0 to keep it until evicted
+     */
+    long ttlMillis() default 0;
+}
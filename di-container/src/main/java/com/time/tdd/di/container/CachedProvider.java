@@ -0,0 +1,170 @@
+package com.time.tdd.di.container;
+
+import java.lang.annotation.Annotation;
+import java.lang.ref.SoftReference;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * instances are soft unless the component has pre destroy callbacks, which a cleared one could not run
+ *
+ * @author XuJian
+ * @date 2023-03-26 14:30
+ **/
+class CachedProvider<T> implements ComponentProvider<T> {
+    private static final String SCOPE = "Cached";
+    private final ComponentProvider<T> provider;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final boolean soft;
+
+    private final Map<Long, Entry<T>> entries = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private final LongAdder cleared = new LongAdder();
+
+    CachedProvider(ComponentProvider<T> provider, int maxSize, long ttlMillis) {
+        if (maxSize < 1 || ttlMillis < 0) {
+            throw new IllegalArgumentException("cache size " + maxSize + ", ttl " + ttlMillis);
+        }
+        this.provider = provider;
+        this.maxSize = maxSize;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.soft = !(provider instanceof InjectionProvider<?> injection && injection.hasPreDestroy()
+            || provider instanceof GeneratedProvider<?> generated && generated.hasPreDestroy());
+    }
+
+    @Override
+    public T get(Context context) {
+        long now = System.nanoTime();
+        Entry<T> latest = latest(now);
+        T instance = latest == null ? null : latest.get();
+        if (instance != null) {
+            latest.used = now;
+            hits.increment();
+            ComponentEvents.scope(context, SCOPE, true);
+            return instance;
+        }
+        misses.increment();
+        ComponentEvents.scope(context, SCOPE, false);
+        instance = provider.get(context);
+        entries.put(sequence.incrementAndGet(), new Entry<>(instance, now, soft));
+        evict();
+        return instance;
+    }
+
+    /**
+     * removes the cleared and expired entries on the way, the maps are small
+     */
+    private Entry<T> latest(long now) {
+        Entry<T> latest = null;
+        for (Map.Entry<Long, Entry<T>> candidate : entries.entrySet()) {
+            Entry<T> entry = candidate.getValue();
+            T instance = entry.get();
+            if (instance == null) {
+                if (entries.remove(candidate.getKey(), entry)) {
+                    cleared.increment();
+                }
+            } else if (ttlNanos != 0 && now - entry.created > ttlNanos) {
+                if (entries.remove(candidate.getKey(), entry)) {
+                    evicted.increment();
+                    provider.destroy(instance);
+                }
+            } else if (latest == null || entry.used > latest.used) {
+                latest = entry;
+            }
+        }
+        return latest;
+    }
+
+    private void evict() {
+        while (entries.size() > maxSize) {
+            Map.Entry<Long, Entry<T>> eldest = null;
+            for (Map.Entry<Long, Entry<T>> candidate : entries.entrySet()) {
+                if (eldest == null || candidate.getValue().used < eldest.getValue().used) {
+                    eldest = candidate;
+                }
+            }
+            if (eldest != null && entries.remove(eldest.getKey(), eldest.getValue())) {
+                T instance = eldest.getValue().get();
+                if (instance == null) {
+                    cleared.increment();
+                } else {
+                    evicted.increment();
+                    provider.destroy(instance);
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean isConstructed() {
+        long now = System.nanoTime();
+        return entries.values().stream()
+            .anyMatch(entry -> entry.get() != null && (ttlNanos == 0 || now - entry.created <= ttlNanos));
+    }
+
+    CacheMetrics metrics() {
+        return new CacheMetrics(maxSize, entries.size(), hits.sum(), misses.sum(), evicted.sum(), cleared.sum());
+    }
+
+    @Override
+    public List<ComponentRef<?>> getDependencies() {
+        return provider.getDependencies();
+    }
+
+    @Override
+    public void destroy(T instance) {
+        provider.destroy(instance);
+    }
+
+    @Override
+    public void close() {
+        for (Long key : entries.keySet()) {
+            Entry<T> entry = entries.remove(key);
+            T instance = entry == null ? null : entry.get();
+            if (instance != null) {
+                provider.destroy(instance);
+            }
+        }
+    }
+
+    private static final class Entry<T> {
+        private final T strong;
+        private final SoftReference<T> soft;
+        final long created;
+        volatile long used;
+
+        Entry(T instance, long created, boolean soft) {
+            this.strong = soft ? null : instance;
+            this.soft = soft ? new SoftReference<>(instance) : null;
+            this.created = created;
+            this.used = created;
+        }
+
+        T get() {
+            return soft == null ? strong : soft.get();
+        }
+    }
+
+    static class CacheScope implements ScopeProvider {
+        @Override
+        public ComponentProvider<?> create(ComponentProvider<?> provider) {
+            return new CachedProvider<>(provider, 16, 0);
+        }
+
+        @Override
+        public ComponentProvider<?> create(Annotation scope, ComponentProvider<?> provider) {
+            if (scope instanceof Cached cached) {
+                return new CachedProvider<>(provider, cached.maxSize(), cached.ttlMillis());
+            }
+            return create(provider);
+        }
+    }
+}
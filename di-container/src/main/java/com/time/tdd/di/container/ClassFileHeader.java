@@ -0,0 +1,157 @@
+package com.time.tdd.di.container;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * only the constant pool entries used are decoded
+ *
+ * @author XuJian
+ * @date 2023-03-20 20:10
+ **/
+record ClassFileHeader(int access, String name, List<String> interfaces, List<String> annotations) {
+    private static final int MAGIC = 0xcafebabe;
+    private static final String RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+
+    static final int ACC_INTERFACE = 0x0200;
+    static final int ACC_ABSTRACT = 0x0400;
+    static final int ACC_SYNTHETIC = 0x1000;
+    static final int ACC_ANNOTATION = 0x2000;
+    static final int ACC_ENUM = 0x4000;
+    static final int ACC_MODULE = 0x8000;
+
+    /**
+     * @throws IllegalArgumentException if the bytes are not a class file
+     */
+    static ClassFileHeader parse(ByteBuffer in) {
+        if (in.getInt() != MAGIC) {
+            throw new IllegalArgumentException("not a class file");
+        }
+        in.getInt();
+        ConstantPool pool = ConstantPool.read(in);
+        int access = in.getShort() & 0xffff;
+        String name = pool.className(in.getShort() & 0xffff);
+        in.getShort();
+        List<String> interfaces = new ArrayList<>();
+        for (int count = in.getShort() & 0xffff; count > 0; count--) {
+            interfaces.add(pool.className(in.getShort() & 0xffff));
+        }
+        skipMembers(in);
+        skipMembers(in);
+        List<String> annotations = new ArrayList<>();
+        for (int count = in.getShort() & 0xffff; count > 0; count--) {
+            String attribute = pool.utf8(in.getShort() & 0xffff);
+            int length = in.getInt();
+            if (!RUNTIME_VISIBLE_ANNOTATIONS.equals(attribute)) {
+                in.position(in.position() + length);
+                continue;
+            }
+            for (int annotation = in.getShort() & 0xffff; annotation > 0; annotation--) {
+                annotations.add(typeName(pool.utf8(in.getShort() & 0xffff)));
+                skipElementValuePairs(in);
+            }
+        }
+        return new ClassFileHeader(access, name, interfaces, annotations);
+    }
+
+    boolean isConcreteClass() {
+        return (access & (ACC_INTERFACE | ACC_ABSTRACT | ACC_SYNTHETIC | ACC_ANNOTATION | ACC_ENUM | ACC_MODULE)) == 0;
+    }
+
+    private static void skipMembers(ByteBuffer in) {
+        for (int count = in.getShort() & 0xffff; count > 0; count--) {
+            in.position(in.position() + 6);
+            skipAttributes(in);
+        }
+    }
+
+    private static void skipAttributes(ByteBuffer in) {
+        for (int count = in.getShort() & 0xffff; count > 0; count--) {
+            in.getShort();
+            int length = in.getInt();
+            in.position(in.position() + length);
+        }
+    }
+
+    private static void skipElementValuePairs(ByteBuffer in) {
+        for (int count = in.getShort() & 0xffff; count > 0; count--) {
+            in.getShort();
+            skipElementValue(in);
+        }
+    }
+
+    private static void skipElementValue(ByteBuffer in) {
+        int tag = in.get();
+        switch (tag) {
+            case 'e' -> in.getInt();
+            case '@' -> {
+                in.getShort();
+                skipElementValuePairs(in);
+            }
+            case '[' -> {
+                for (int count = in.getShort() & 0xffff; count > 0; count--) {
+                    skipElementValue(in);
+                }
+            }
+            default -> in.getShort();
+        }
+    }
+
+    /**
+     * Ljakarta/inject/Singleton; to jakarta.inject.Singleton
+     */
+    private static String typeName(String descriptor) {
+        return descriptor.substring(1, descriptor.length() - 1).replace('/', '.');
+    }
+
+    private record ConstantPool(ByteBuffer in, int[] offsets) {
+        private static final int UTF8 = 1;
+        private static final int CLASS = 7;
+
+        static ConstantPool read(ByteBuffer in) {
+            int[] offsets = new int[in.getShort() & 0xffff];
+            for (int index = 1; index < offsets.length; index++) {
+                offsets[index] = in.position();
+                int tag = in.get();
+                switch (tag) {
+                    case UTF8 -> {
+                        int length = in.getShort() & 0xffff;
+                        in.position(in.position() + length);
+                    }
+                    case CLASS, 8, 16, 19, 20 -> in.getShort();
+                    case 15 -> {
+                        in.get();
+                        in.getShort();
+                    }
+                    case 3, 4, 9, 10, 11, 12, 17, 18 -> in.getInt();
+                    case 5, 6 -> {
+                        in.getLong();
+                        index++;
+                    }
+                    default -> throw new IllegalArgumentException("unknown constant pool tag " + tag);
+                }
+            }
+            return new ConstantPool(in, offsets);
+        }
+
+        String utf8(int index) {
+            int offset = offsets[index];
+            if (in.get(offset) != UTF8) {
+                throw new IllegalArgumentException("constant " + index + " is not utf8");
+            }
+            byte[] bytes = new byte[in.getShort(offset + 1) & 0xffff];
+            in.get(offset + 3, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        String className(int index) {
+            int offset = offsets[index];
+            if (in.get(offset) != CLASS) {
+                throw new IllegalArgumentException("constant " + index + " is not a class");
+            }
+            return utf8(in.getShort(offset + 1) & 0xffff).replace('/', '.');
+        }
+    }
+}
@@ -1,11 +1,78 @@
 package com.time.tdd.di.container;
 
 import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Objects;
 
 /**
  * @author XuJian
  * @date 2023-03-04 16:48
  **/
-public record Component(Class<?> type, Annotation qualifier) {
-}
+public final class Component {
+    private final TypeKey type;
+    private final Annotation qualifier;
+    private final QualifierKey key;
+    private final int hash;
+
+    public Component(Class<?> type, Annotation qualifier) {
+        this(TypeKey.of(type), qualifier);
+    }
+
+    /**
+     * @throws com.time.tdd.di.container.exceptions.IllegalComponentException if the type has type variables
+     */
+    public Component(Type type, Annotation qualifier) {
+        this(TypeKey.of(type), qualifier);
+    }
+
+    private Component(TypeKey type, Annotation qualifier) {
+        this.type = type;
+        this.qualifier = qualifier;
+        this.key = qualifier == null ? null : QualifierKey.of(qualifier);
+        this.hash = 31 * type.hashCode() + Objects.hashCode(key);
+    }
+
+    /**
+     * the raw class of a parameterized type
+     */
+    public Class<?> type() {
+        return type.raw();
+    }
+
+    public Type genericType() {
+        return type.type();
+    }
 
+    public Annotation qualifier() {
+        return qualifier;
+    }
+
+    /**
+     * the component of the same type without qualifier, under which the components of the type are collected
+     */
+    Component unqualified() {
+        return qualifier == null ? this : new Component(type, null);
+    }
+
+    /**
+     * null qualifiers are the same too
+     */
+    boolean isSameQualifier(Component other) {
+        return key == other.key;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof Component other && hash == other.hash && type == other.type && key == other.key;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "Component[type=" + type.type().getTypeName() + ", qualifier=" + qualifier + "]";
+    }
+}
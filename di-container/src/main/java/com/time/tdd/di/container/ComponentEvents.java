@@ -0,0 +1,170 @@
+package com.time.tdd.di.container;
+
+import jdk.jfr.Category;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * @author XuJian
+ * @date 2023-03-22 21:00
+ **/
+final class ComponentEvents {
+    private static final String CATEGORY = "DI Container";
+    /**
+     * the nanos spent in the constructions nested in the one running on this thread, to tell its own time apart
+     */
+    private static final ThreadLocal<long[]> NESTED = new ThreadLocal<>();
+
+    private ComponentEvents() {
+    }
+
+    static StatisticsRecorder statistics(Context context) {
+        return context instanceof Binding<?> binding ? binding.recorder() : null;
+    }
+
+    static <T> T resolve(Binding<T> binding) {
+        StatisticsRecorder statistics = binding.recorder();
+        boolean recording = FlightRecorder.isInitialized() && EventTypes.RESOLUTION.isEnabled();
+        if (statistics == null && !recording) {
+            return binding.provider().get(binding);
+        }
+        ResolutionEvent event = recording ? new ResolutionEvent() : null;
+        long start = System.nanoTime();
+        if (event != null) {
+            event.begin();
+        }
+        try {
+            return binding.provider().get(binding);
+        } finally {
+            if (event != null) {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.type = binding.component().type();
+                    event.qualifier = qualifier(binding.component());
+                    event.commit();
+                }
+            }
+            if (statistics != null) {
+                statistics.resolved(System.nanoTime() - start);
+            }
+        }
+    }
+
+    static <T> T construct(Context context, Class<?> implementation, ComponentProvider<T> constructor) {
+        StatisticsRecorder statistics = statistics(context);
+        boolean recording = FlightRecorder.isInitialized() && EventTypes.CONSTRUCTION.isEnabled();
+        if (statistics == null && !recording) {
+            return constructor.get(context);
+        }
+        ConstructionEvent event = recording ? new ConstructionEvent() : null;
+        long[] outer = NESTED.get();
+        long[] nested = new long[1];
+        NESTED.set(nested);
+        long start = System.nanoTime();
+        if (event != null) {
+            event.begin();
+        }
+        try {
+            return constructor.get(context);
+        } finally {
+            if (event != null) {
+                event.end();
+            }
+            long elapsed = System.nanoTime() - start;
+            if (outer == null) {
+                NESTED.remove();
+            } else {
+                NESTED.set(outer);
+                outer[0] += elapsed;
+            }
+            if (event != null && event.shouldCommit()) {
+                event.implementation = implementation;
+                if (context instanceof Binding<?> binding) {
+                    event.type = binding.component().type();
+                    event.qualifier = qualifier(binding.component());
+                }
+                event.commit();
+            }
+            if (statistics != null) {
+                statistics.constructed(elapsed, elapsed - nested[0]);
+            }
+        }
+    }
+
+    static void scope(Context context, String scope, boolean hit) {
+        StatisticsRecorder statistics = statistics(context);
+        if (statistics != null) {
+            statistics.scope(hit);
+        }
+        if (FlightRecorder.isInitialized() && EventTypes.SCOPE.isEnabled()) {
+            ScopeEvent event = new ScopeEvent();
+            if (context instanceof Binding<?> binding) {
+                event.type = binding.component().type();
+                event.qualifier = qualifier(binding.component());
+            }
+            event.scope = scope;
+            event.hit = hit;
+            event.commit();
+        }
+    }
+
+    private static String qualifier(Component component) {
+        return component.qualifier() == null ? null : component.qualifier().toString();
+    }
+
+    /**
+     * looked up once a recording initialized the flight recorder
+     */
+    private static final class EventTypes {
+        static final EventType RESOLUTION = EventType.getEventType(ResolutionEvent.class);
+        static final EventType CONSTRUCTION = EventType.getEventType(ConstructionEvent.class);
+        static final EventType SCOPE = EventType.getEventType(ScopeEvent.class);
+    }
+
+    @Name("com.time.tdd.di.Resolution")
+    @Label("Component Resolution")
+    @Category(CATEGORY)
+    @Threshold("1 ms")
+    @StackTrace(false)
+    static class ResolutionEvent extends Event {
+        @Label("Type")
+        Class<?> type;
+        @Label("Qualifier")
+        String qualifier;
+    }
+
+    @Name("com.time.tdd.di.Construction")
+    @Label("Component Construction")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static class ConstructionEvent extends Event {
+        @Label("Type")
+        Class<?> type;
+        @Label("Qualifier")
+        String qualifier;
+        @Label("Implementation")
+        Class<?> implementation;
+    }
+
+    @Name("com.time.tdd.di.Scope")
+    @Label("Component Scope")
+    @Category(CATEGORY)
+    @Enabled(false)
+    @StackTrace(false)
+    static class ScopeEvent extends Event {
+        @Label("Type")
+        Class<?> type;
+        @Label("Qualifier")
+        String qualifier;
+        @Label("Scope")
+        String scope;
+        @Label("Hit")
+        boolean hit;
+    }
+}
@@ -0,0 +1,14 @@
+package com.time.tdd.di.container;
+
+import jakarta.inject.Provider;
+
+/**
+ * goes straight to the scoped provider of the component
+ *
+ * @author XuJian
+ * @date 2023-03-23 20:10
+ **/
+public interface ComponentHandle<T> extends Provider<T> {
+
+    Component component();
+}
@@ -6,12 +6,31 @@ import java.util.List;
  * @author XuJian
  * @date 2023-03-06 21:21
  **/
-interface ComponentProvider<T> {
+public interface ComponentProvider<T> {
     T get(Context context);
 
 
     default List<ComponentRef<?>> getDependencies() {
         return List.of();
     }
+
+    /**
+     * true if a get by the current thread returns an instance the scope holds
+     */
+    default boolean isConstructed() {
+        return false;
+    }
+
+    /**
+     * runs the pre destroy callbacks of an instance got from this provider
+     */
+    default void destroy(T instance) {
+    }
+
+    /**
+     * destroys the instances the scope holds, called once by {@link Context#close()}
+     */
+    default void close() {
+    }
 }
 
@@ -3,13 +3,20 @@ package com.time.tdd.di.container;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import jakarta.inject.Provider;
 
 /**
+ * a ref of {@link Provider}, {@link Lazy}, {@link List} or {@link Set} is to the component of its type argument
+ *
  * @author XuJian
  * @date 2023-03-03 00:16
  **/
 public class ComponentRef<ComponentType> {
+    private static final Set<Type> CONTAINERS = Set.of(Provider.class, Lazy.class, List.class, Set.class);
+
     private Type container;
     private Component component;
 
@@ -24,8 +31,12 @@ public class ComponentRef<ComponentType> {
     }
 
     protected ComponentRef() {
+        this((Annotation) null);
+    }
+
+    protected ComponentRef(Annotation qualifier) {
         Type type = ((ParameterizedType) getClass().getGenericSuperclass()).getActualTypeArguments()[0];
-        init(type, null);
+        init(type, qualifier);
     }
 
     public static <ComponentType> ComponentRef<ComponentType> of(Class<ComponentType> component) {
@@ -36,22 +47,22 @@ public class ComponentRef<ComponentType> {
         return new ComponentRef<>(component, qualifier);
     }
 
+    @SuppressWarnings("rawtypes")
     static ComponentRef of(Type type) {
         return new ComponentRef(type, null);
     }
 
+    @SuppressWarnings("rawtypes")
     static ComponentRef of(Type type, Annotation qualifier) {
         return new ComponentRef(type, qualifier);
     }
 
     private void init(Type type, Annotation qualifier) {
-        if (type instanceof ParameterizedType container) {
+        if (type instanceof ParameterizedType container && CONTAINERS.contains(container.getRawType())) {
             this.container = container.getRawType();
-            Class<ComponentType> componentType = (Class<ComponentType>) container.getActualTypeArguments()[0];
-            this.component = new Component(componentType, qualifier);
+            this.component = new Component(container.getActualTypeArguments()[0], qualifier);
         } else {
-            Class<ComponentType> componentType = (Class<ComponentType>) type;
-            this.component = new Component(componentType, qualifier);
+            this.component = new Component(type, qualifier);
         }
     }
 
@@ -67,15 +78,21 @@ public class ComponentRef<ComponentType> {
         return container != null;
     }
 
+    /**
+     * a {@link List} or {@link Set} of every component of the type
+     */
+    boolean isCollection() {
+        return container == List.class || container == Set.class;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
             return true;
         }
-        if (o == null || getClass() != o.getClass()) {
+        if (!(o instanceof ComponentRef<?> that)) {
             return false;
         }
-        ComponentRef<?> that = (ComponentRef<?>) o;
         return Objects.equals(container, that.container) && component.equals(that.component);
     }
 
@@ -0,0 +1,127 @@
+package com.time.tdd.di.container;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import jakarta.inject.Qualifier;
+import jakarta.inject.Scope;
+import jakarta.inject.Singleton;
+
+/**
+ * finds concrete classes annotated with a scope or qualifier, without initializing them
+ *
+ * @author XuJian
+ * @date 2023-03-20 20:40
+ **/
+public class ComponentScanner {
+    private static final String CLASS_FILE = ".class";
+
+    private final ClassLoader loader;
+    private final Map<String, Boolean> componentAnnotations = new ConcurrentHashMap<>();
+
+    public ComponentScanner(ClassLoader loader) {
+        this.loader = loader;
+        componentAnnotations.put(Singleton.class.getName(), true);
+    }
+
+    /**
+     * the component classes in the package and its sub packages, in every directory or jar of the class loader
+     */
+    public List<Class<?>> scan(String packageName) {
+        String path = packageName.replace('.', '/');
+        List<Path> roots = new ArrayList<>();
+        try {
+            for (URL url : Collections.list(loader.getResources(path))) {
+                if ("file".equals(url.getProtocol())) {
+                    roots.add(Paths.get(url.toURI()));
+                } else if ("jar".equals(url.getProtocol())) {
+                    String file = url.getPath();
+                    roots.add(Paths.get(new URL(file.substring(0, file.indexOf("!/"))).toURI()));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException(e);
+        }
+        String prefix = packageName.isEmpty() ? "" : packageName + ".";
+        return scan(roots).stream().filter(type -> type.getName().startsWith(prefix)).toList();
+    }
+
+    /**
+     * the component classes in the given directories and jars, which must be visible to the class loader
+     */
+    public List<Class<?>> scan(List<Path> roots) {
+        return roots.parallelStream().flatMap(this::headers).filter(this::isComponent)
+            .map(ClassFileHeader::name).distinct().sorted().<Class<?>>map(this::load).toList();
+    }
+
+    private Stream<ClassFileHeader> headers(Path root) {
+        if (Files.isDirectory(root)) {
+            return headers(root, root);
+        }
+        try (FileSystem jar = FileSystems.newFileSystem(root)) {
+            return headers(root, jar.getPath("/"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * collected before returning, a jar file system is closed once walked
+     */
+    private Stream<ClassFileHeader> headers(Path root, Path directory) {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(file -> file.getFileName() != null && file.getFileName().toString().endsWith(CLASS_FILE))
+                .toList().parallelStream().map(this::header).filter(header -> header != null).toList().stream();
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to scan " + root, e);
+        }
+    }
+
+    private ClassFileHeader header(Path file) {
+        try {
+            return ClassFileHeader.parse(ByteBuffer.wrap(Files.readAllBytes(file)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            // not a class file the scanner understands, it cannot be a component either
+            return null;
+        }
+    }
+
+    private boolean isComponent(ClassFileHeader header) {
+        return header.isConcreteClass() && header.annotations().stream()
+            .anyMatch(annotation -> componentAnnotations.computeIfAbsent(annotation, this::isComponentAnnotation));
+    }
+
+    private boolean isComponentAnnotation(String name) {
+        try {
+            Class<?> type = Class.forName(name, false, loader);
+            return type.isAnnotation() && (type.isAnnotationPresent(Scope.class) || type.isAnnotationPresent(Qualifier.class));
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    private Class<?> load(String name) {
+        try {
+            return Class.forName(name, false, loader);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("class " + name + " found but not visible to the class loader", e);
+        }
+    }
+}
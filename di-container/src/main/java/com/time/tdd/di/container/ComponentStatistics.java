@@ -0,0 +1,21 @@
+package com.time.tdd.di.container;
+
+/**
+ * @param resolution   latencies of getting the component from its context, scope included
+ * @param construction latencies of constructing and injecting new instances
+ * @param constructionNanos time spent constructing and injecting the instances, not counting the dependencies
+ *                     constructed for them
+ * @author XuJian
+ * @date 2023-03-22 20:20
+ **/
+public record ComponentStatistics(long scopeHits, long scopeMisses, LatencyHistogram resolution, LatencyHistogram construction,
+                                  long constructionNanos) {
+
+    public long resolutions() {
+        return resolution.count();
+    }
+
+    public long constructions() {
+        return construction.count();
+    }
+}
@@ -1,12 +1,68 @@
 package com.time.tdd.di.container;
 
+import com.time.tdd.di.container.exceptions.DependencyNotFoundException;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author mickey
  */
-public interface Context {
+public interface Context extends AutoCloseable {
 
     <ComponentType> Optional<ComponentType> get(ComponentRef<ComponentType> ref);
 
+    /**
+     * failed with {@link DependencyNotFoundException} if the component is not bound
+     */
+    default <ComponentType> CompletableFuture<ComponentType> getAsync(ComponentRef<ComponentType> ref) {
+        return CompletableFuture.supplyAsync(() -> get(ref).orElseThrow(() -> new DependencyNotFoundException(ref.component())));
+    }
+
+    /**
+     * resolves the component once, to be got repeatedly
+     *
+     * @throws com.time.tdd.di.container.exceptions.DependencyNotFoundException if the component is not bound
+     */
+    default <ComponentType> ComponentHandle<ComponentType> handle(ComponentRef<ComponentType> ref) {
+        return new LookupHandle<>(this, ref);
+    }
+
+    /**
+     * gives an instance borrowed from a {@link Pool} scoped component back, other components ignore it
+     */
+    default <ComponentType> void release(ComponentRef<ComponentType> ref, ComponentType instance) {
+    }
+
+    default Optional<PoolMetrics> poolMetrics(ComponentRef<?> ref) {
+        return Optional.empty();
+    }
+
+    /**
+     * of a {@link Cached} scoped component, empty for other components
+     */
+    default Optional<CacheMetrics> cacheMetrics(ComponentRef<?> ref) {
+        return Optional.empty();
+    }
+
+    default Map<Component, ComponentStatistics> statistics() {
+        return Map.of();
+    }
+
+    /**
+     * empty if the context does not collect statistics
+     */
+    default Optional<StartupProfile> profile() {
+        return Optional.empty();
+    }
+
+    /**
+     * destroys the instances held by the scoped components, every component before its dependencies
+     *
+     * @throws com.time.tdd.di.container.exceptions.ContextCloseException if some were not destroyed
+     */
+    @Override
+    default void close() {
+    }
+
 }
@@ -4,15 +4,25 @@ import com.time.tdd.di.container.exceptions.CyclicDependenciesFoundException;
 import com.time.tdd.di.container.exceptions.DependencyNotFoundException;
 import com.time.tdd.di.container.exceptions.IllegalComponentException;
 import java.lang.annotation.Annotation;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Stack;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
-import jakarta.inject.Provider;
 import jakarta.inject.Qualifier;
 import jakarta.inject.Scope;
 import jakarta.inject.Singleton;
@@ -22,12 +32,87 @@ import jakarta.inject.Singleton;
  * @date 2023-02-24 21:49
  **/
 public class ContextConfig {
+    static final String GENERATED_PROVIDER_SUFFIX = "_ComponentProvider";
 
-    private final Map<Component, ComponentProvider<?>> components = new HashMap<>();
+    private static final ClassValue<Optional<ComponentProvider<?>>> generatedProviders = new ClassValue<>() {
+        @Override
+        protected Optional<ComponentProvider<?>> computeValue(Class<?> implementation) {
+            try {
+                Class<?> provider = Class.forName(implementation.getName() + GENERATED_PROVIDER_SUFFIX, true,
+                    implementation.getClassLoader());
+                if (!ComponentProvider.class.isAssignableFrom(provider)) {
+                    return Optional.empty();
+                }
+                return Optional.of((ComponentProvider<?>) provider.getConstructor().newInstance());
+            } catch (ClassNotFoundException | LinkageError e) {
+                return Optional.empty();
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalComponentException();
+            }
+        }
+    };
+
+    private final Map<Component, ComponentProvider<?>> components = new LinkedHashMap<>();
     private final Map<Class<?>, ScopeProvider> scopes = new HashMap<>();
+    private final Map<ComponentProvider<?>, Recipe> recipes = new IdentityHashMap<>();
+    private final ResolvedContext parent;
+    private boolean generatedFactories;
+    private MetadataSnapshot snapshot;
+    private boolean statistics;
+    private Duration closeTimeout = Duration.ofSeconds(30);
 
     public ContextConfig() {
+        this((ResolvedContext) null);
+    }
+
+    /**
+     * components not bound here are looked up in the parent, which the child does not change
+     */
+    public ContextConfig(Context parent) {
+        this(resolved(parent));
+    }
+
+    private ContextConfig(ResolvedContext parent) {
+        this.parent = parent;
         scope(Singleton.class, SingletonProvider::new);
+        scope(Pool.class, new PooledProvider.PoolScope());
+        scope(Cached.class, new CachedProvider.CacheScope());
+        scope(RequestScoped.class, RequestScopedProvider::new);
+    }
+
+    private static ResolvedContext resolved(Context parent) {
+        if (!(parent instanceof ResolvedContext resolved)) {
+            throw new IllegalArgumentException("parent context not got from a ContextConfig");
+        }
+        return resolved;
+    }
+
+    /**
+     * falls back to reflection for implementations the generated classes cannot access
+     */
+    public void useGeneratedFactories(boolean enabled) {
+        this.generatedFactories = enabled;
+    }
+
+    /**
+     * see {@link Context#statistics()}
+     */
+    public void collectStatistics(boolean enabled) {
+        this.statistics = enabled;
+    }
+
+    /**
+     * 30 seconds by default
+     */
+    public void closeTimeout(Duration timeout) {
+        this.closeTimeout = timeout;
+    }
+
+    /**
+     * inject members of classes whose bytes did not change are read from the snapshot
+     */
+    public void useSnapshot(Path path) {
+        this.snapshot = MetadataSnapshot.load(path);
     }
 
     private static <Type> Optional<Annotation> scopeFrom(Class<Type> implementation) {
@@ -42,8 +127,29 @@ public class ContextConfig {
         if (Arrays.stream(qualifiers).anyMatch(q -> !q.annotationType().isAnnotationPresent(Qualifier.class))) {
             throw new IllegalComponentException();
         }
+        ComponentProvider<Type> provider = context -> instance;
         for (Annotation qualifier : qualifiers) {
-            components.put(new Component(type, qualifier), context -> instance);
+            components.put(new Component(type, qualifier), provider);
+        }
+    }
+
+    public <Type> void bind(ComponentRef<Type> type, Type instance) {
+        if (type.isContainer()) {
+            throw new IllegalComponentException();
+        }
+        components.put(type.component(), (ComponentProvider<Type>) context -> instance);
+    }
+
+    /**
+     * binds every component to itself, and to each interface it directly implements that no other of them implements
+     */
+    public void bindAll(List<Class<?>> implementations) {
+        Map<Class<?>, Long> implemented = implementations.stream().flatMap(implementation -> Arrays.stream(implementation.getInterfaces()))
+            .collect(Collectors.groupingBy(type -> type, Collectors.counting()));
+        for (Class<?> implementation : implementations) {
+            List<Class<?>> types = new ArrayList<>(List.of(implementation));
+            Arrays.stream(implementation.getInterfaces()).filter(type -> implemented.get(type) == 1).forEach(types::add);
+            bindImplementation(types, implementation, implementation.getAnnotations());
         }
     }
 
@@ -53,26 +159,70 @@ public class ContextConfig {
 
     public <Type, Implementation extends Type> void bind(Class<Type> type, Class<Implementation> implementation,
                                                          Annotation... annotations) {
+        bindImplementation(List.of(type), implementation, annotations);
+    }
 
-        Map<Class<?>, List<Annotation>> annotationGroups =
-            Arrays.stream(annotations).collect(Collectors.groupingBy(this::typeOf, Collectors.toList()));
-
-        if (annotationGroups.containsKey(illegal.class)) {
+    /**
+     * the qualifier of the ref is used, not the ones of the implementation
+     */
+    public <Type, Implementation extends Type> void bind(ComponentRef<Type> type, Class<Implementation> implementation) {
+        if (type.isContainer()) {
             throw new IllegalComponentException();
         }
+        Map<Class<?>, List<Annotation>> annotationGroups = annotationGroups(implementation.getAnnotations());
+        components.put(type.component(), createScopedProvider(implementation, annotationGroups.getOrDefault(Scope.class, List.of())));
+    }
+
+    /**
+     * the types share one provider, and so one instance of scoped implementations
+     */
+    private void bindImplementation(List<Class<?>> types, Class<?> implementation, Annotation... annotations) {
+        Map<Class<?>, List<Annotation>> annotationGroups = annotationGroups(annotations);
 
-        bind(type, annotationGroups.getOrDefault(Qualifier.class, List.of()),
-            createScopedProvider(implementation, annotationGroups.getOrDefault(Scope.class, List.of())));
+        ComponentProvider<?> provider = createScopedProvider(implementation, annotationGroups.getOrDefault(Scope.class, List.of()));
+        for (Class<?> type : types) {
+            bind(type, annotationGroups.getOrDefault(Qualifier.class, List.of()), provider);
+        }
     }
 
+    /**
+     * the recipe gives a fresh scope around the same injection on {@link #refresh}
+     */
     private <Type> ComponentProvider<?> createScopedProvider(Class<Type> implementation, List<Annotation> scopes) {
         if (scopes.size() > 1) {
             throw new IllegalComponentException();
         }
-        ComponentProvider<?> injectionProvider = new InjectionProvider<>(implementation);
+        ComponentProvider<?> injectionProvider = generatedProviders.get(implementation)
+            .<ComponentProvider<?>>map(generated -> constructing(implementation, generated)).orElseGet(() -> {
+            InjectionProvider<Type> provider = snapshot != null ? snapshot.provider(implementation) : new InjectionProvider<>(implementation);
+            return generatedFactories ? GeneratedProvider.of(implementation, provider) : provider;
+        });
+
+        Optional<Annotation> scope = scopes.stream().findFirst().or(() -> scopeFrom(implementation));
+        Supplier<ComponentProvider<?>> recipe =
+            () -> scope.<ComponentProvider<?>>map(s -> getScopeProvider(s, injectionProvider)).orElse(injectionProvider);
+        ComponentProvider<?> provider = recipe.get();
+        recipes.put(provider, new Recipe(implementation, recipe));
+        return provider;
+    }
+
+    private static <Type> ComponentProvider<Type> constructing(Class<?> implementation, ComponentProvider<Type> generated) {
+        return new ComponentProvider<>() {
+            @Override
+            public Type get(Context context) {
+                return ComponentEvents.construct(context, implementation, generated);
+            }
 
-        return scopes.stream().findFirst().or(() -> scopeFrom(implementation))
-            .<ComponentProvider<?>>map(s -> getScopeProvider(s, injectionProvider)).orElse(injectionProvider);
+            @Override
+            public List<ComponentRef<?>> getDependencies() {
+                return generated.getDependencies();
+            }
+
+            @Override
+            public void destroy(Type instance) {
+                generated.destroy(instance);
+            }
+        };
     }
 
     private <Type> void bind(Class<Type> type, List<Annotation> qualifiers, ComponentProvider<?> provider) {
@@ -84,6 +234,15 @@ public class ContextConfig {
         }
     }
 
+    private Map<Class<?>, List<Annotation>> annotationGroups(Annotation... annotations) {
+        Map<Class<?>, List<Annotation>> annotationGroups =
+            Arrays.stream(annotations).collect(Collectors.groupingBy(this::typeOf, Collectors.toList()));
+        if (annotationGroups.containsKey(illegal.class)) {
+            throw new IllegalComponentException();
+        }
+        return annotationGroups;
+    }
+
     private Class<?> typeOf(Annotation annotation) {
         Class<? extends Annotation> type = annotation.annotationType();
         return Stream.of(Qualifier.class, Scope.class).filter(type::isAnnotationPresent).findFirst().orElse(illegal.class);
@@ -93,48 +252,169 @@ public class ContextConfig {
         if (!scopes.containsKey(scope.annotationType())) {
             throw new IllegalComponentException();
         }
-        return scopes.get(scope.annotationType()).create(provider);
+        return scopes.get(scope.annotationType()).create(scope, provider);
     }
 
     public Context getContext() {
-        // check dependencies
-        components.keySet().forEach(component -> checkDependencies(component, new Stack<>()));
+        return resolve();
+    }
 
-        return new Context() {
-            // Type -> Reference
+    /**
+     * independent singletons are constructed in parallel on the executor, which also runs the async gets
+     */
+    public Context getContext(Executor executor) {
+        ResolvedContext context = resolve();
+        context.initialize(executor);
+        return context;
+    }
 
-            @Override
-            public <ComponentType> Optional<ComponentType> get(ComponentRef<ComponentType> ref) {
-                if (ref.isContainer()) {
-                    if (ref.getContainer() != Provider.class) {
-                        return Optional.empty();
-                    }
-                    return (Optional<ComponentType>) Optional.ofNullable(getProvider(ref))
-                        .map(provider -> (Provider<Object>) () -> provider.get(this));
+    public LiveContext getLiveContext() {
+        ContextConfig config = copy();
+        return new LiveContext(config, config.resolve());
+    }
+
+    /**
+     * binds the same providers, so the copy shares the instances of scoped components
+     */
+    ContextConfig copy() {
+        ContextConfig copy = new ContextConfig(parent);
+        copy.components.putAll(components);
+        copy.scopes.putAll(scopes);
+        components.values().stream().filter(recipes::containsKey).forEach(provider -> copy.recipes.put(provider, recipes.get(provider)));
+        copy.generatedFactories = generatedFactories;
+        copy.snapshot = snapshot;
+        copy.statistics = statistics;
+        copy.closeTimeout = closeTimeout;
+        return copy;
+    }
+
+    /**
+     * gives a fresh scope to every component depending on one bound differently than in the previous config, so none of
+     * their instances holds one of it
+     */
+    void refresh(ContextConfig previous) {
+        Deque<Component> changed = components.entrySet().stream().filter(entry -> previous.components.get(entry.getKey()) != entry.getValue())
+            .map(Map.Entry::getKey).collect(Collectors.toCollection(ArrayDeque::new));
+        if (changed.isEmpty()) {
+            return;
+        }
+        Map<Component, List<Component>> types = components.keySet().stream().collect(Collectors.groupingBy(Component::unqualified));
+        Map<Component, List<Component>> dependents = new HashMap<>();
+        for (Component component : components.keySet()) {
+            dependencies(component, types).forEachRemaining(dependency ->
+                dependents.computeIfAbsent(dependency.component(), key -> new ArrayList<>()).add(component));
+        }
+        Set<Component> visited = new HashSet<>(changed);
+        Map<ComponentProvider<?>, ComponentProvider<?>> refreshed = new IdentityHashMap<>();
+        while (!changed.isEmpty()) {
+            for (Component dependent : dependents.getOrDefault(changed.poll(), List.of())) {
+                if (!visited.add(dependent)) {
+                    continue;
+                }
+                changed.add(dependent);
+                ComponentProvider<?> provider = components.get(dependent);
+                Recipe recipe = recipes.get(provider);
+                if (recipe != null) {
+                    ComponentProvider<?> fresh = refreshed.computeIfAbsent(provider, stale -> recipe.provider().get());
+                    recipes.put(fresh, recipe);
+                    components.put(dependent, fresh);
                 }
-                return Optional.ofNullable(getProvider(ref)).map(provider -> (ComponentType) provider.get(this));
             }
-        };
+        }
+    }
+
+    Map<Component, ComponentProvider<?>> components() {
+        return components;
     }
 
-    private <ComponentType> ComponentProvider<?> getProvider(ComponentRef<ComponentType> ref) {
-        return components.get(ref.component());
+    private Class<?> implementation(ComponentProvider<?> provider) {
+        Recipe recipe = recipes.get(provider);
+        return recipe == null ? null : recipe.implementation();
     }
 
-    private void checkDependencies(Component component, Stack<Component> visiting) {
-        for (ComponentRef dependency : components.get(component).getDependencies()) {
-            if (!components.containsKey(dependency.component())) {
-                throw new DependencyNotFoundException(component, dependency.component());
+    ResolvedContext resolve() {
+        long fingerprint = snapshot != null && parent == null ? snapshot.fingerprint(components, this::implementation) : 0;
+        if (fingerprint == 0 || !snapshot.isValidated(fingerprint)) {
+            checkDependencies();
+        }
+        if (fingerprint != 0) {
+            snapshot.save(fingerprint);
+        }
+
+        return new ResolvedContext(components, parent, statistics, closeTimeout);
+    }
+
+    /**
+     * iterative, so that deep graphs do not overflow the stack. components of the parent cannot depend on the ones
+     * bound here and are not walked
+     */
+    void checkDependencies() {
+        Map<Component, List<Component>> types = components.keySet().stream().collect(Collectors.groupingBy(Component::unqualified));
+        Map<Component, Boolean> visited = new HashMap<>(components.size() * 2);
+        List<Visit> path = new ArrayList<>();
+        for (Component root : components.keySet()) {
+            if (visited.containsKey(root)) {
+                continue;
             }
-            if (!dependency.isContainer()) {
-                if (visiting.contains(dependency.component())) {
-                    throw new CyclicDependenciesFoundException(visiting);
+            visited.put(root, false);
+            path.add(new Visit(root, dependencies(root, types)));
+            while (!path.isEmpty()) {
+                Visit visit = path.get(path.size() - 1);
+                if (!visit.dependencies().hasNext()) {
+                    visited.put(visit.component(), true);
+                    path.remove(path.size() - 1);
+                    continue;
                 }
-                visiting.push(dependency.component());
-                checkDependencies(dependency.component(), visiting);
-                visiting.pop();
+                ComponentRef<?> dependency = visit.dependencies().next();
+                if (!components.containsKey(dependency.component())) {
+                    if (parent == null || parent.binding(dependency.component()) == null) {
+                        throw new DependencyNotFoundException(visit.component(), dependency.component());
+                    }
+                    continue;
+                }
+                if (dependency.isContainer()) {
+                    continue;
+                }
+                Boolean done = visited.get(dependency.component());
+                if (done == null) {
+                    visited.put(dependency.component(), false);
+                    path.add(new Visit(dependency.component(), dependencies(dependency.component(), types)));
+                } else if (!done) {
+                    throw new CyclicDependenciesFoundException(cycle(path, dependency.component()));
+                }
+            }
+        }
+    }
+
+    private Iterator<ComponentRef<?>> dependencies(Component component, Map<Component, List<Component>> types) {
+        List<ComponentRef<?>> dependencies = components.get(component).getDependencies();
+        if (dependencies.stream().noneMatch(ComponentRef::isCollection)) {
+            return dependencies.iterator();
+        }
+        return dependencies.stream().<ComponentRef<?>>flatMap(dependency -> {
+            if (!dependency.isCollection()) {
+                return Stream.of(dependency);
             }
+            Component collection = dependency.component();
+            return types.getOrDefault(collection.unqualified(), List.of()).stream()
+                .filter(element -> collection.qualifier() == null || element.isSameQualifier(collection))
+                .<ComponentRef<?>>map(element -> ComponentRef.of(element.genericType(), element.qualifier()));
+        }).iterator();
+    }
+
+    private static List<Component> cycle(List<Visit> path, Component closing) {
+        int start = path.size() - 1;
+        while (!path.get(start).component().equals(closing)) {
+            start--;
         }
+        return path.subList(start, path.size()).stream().map(Visit::component).toList();
+    }
+
+    /**
+     * for tests and benchmarks building synthetic graphs
+     */
+    void bind(Component component, ComponentProvider<?> provider) {
+        components.put(component, provider);
     }
 
     public <ScopeType extends Annotation> void scope(Class<ScopeType> scope, ScopeProvider provider) {
@@ -144,5 +424,11 @@ public class ContextConfig {
     @interface illegal {
     }
 
+    private record Visit(Component component, Iterator<ComponentRef<?>> dependencies) {
+    }
+
+    private record Recipe(Class<?> implementation, Supplier<ComponentProvider<?>> provider) {
+    }
+
 }
 
@@ -0,0 +1,218 @@
+package com.time.tdd.di.container;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * the factory has no branches, so it needs no stack map frames
+ *
+ * @author XuJian
+ * @date 2023-03-12 15:40
+ **/
+class FactoryClassWriter {
+    static final String METHOD_NAME = "create";
+    static final MethodType METHOD_TYPE = MethodType.methodType(Object.class, Object[].class);
+
+    private static final int VERSION = 61;
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_STATIC = 0x0008;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+
+    private final ConstantPool constants = new ConstantPool();
+    private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+    private int maxStack;
+    private int index;
+
+    static byte[] write(Class<?> component, Constructor<?> constructor, List<Field> fields, List<Method> methods) {
+        FactoryClassWriter writer = new FactoryClassWriter();
+        writer.construct(component, constructor);
+        fields.forEach(writer::set);
+        methods.forEach(writer::invoke);
+        writer.code.write(0x2B); // aload_1
+        writer.code.write(0xB0); // areturn
+        return writer.toByteArray(internalName(component) + "$$Factory");
+    }
+
+    private static String internalName(Class<?> type) {
+        return type.isArray() ? type.descriptorString() : type.getName().replace('.', '/');
+    }
+
+    private void construct(Class<?> component, Constructor<?> constructor) {
+        code.write(0xBB); // new
+        u2(constants.type(component));
+        code.write(0x59); // dup
+        arguments(constructor.getParameterTypes(), 2);
+        code.write(0xB7); // invokespecial
+        u2(constants.method(component, "<init>", MethodType.methodType(void.class, constructor.getParameterTypes())));
+        code.write(0x4C); // astore_1
+    }
+
+    private void set(Field field) {
+        code.write(0x2B); // aload_1
+        arguments(new Class<?>[] {field.getType()}, 1);
+        code.write(0xB5); // putfield
+        u2(constants.field(field.getDeclaringClass(), field.getName(), field.getType()));
+    }
+
+    private void invoke(Method method) {
+        code.write(0x2B); // aload_1
+        arguments(method.getParameterTypes(), 1);
+        code.write(0xB6); // invokevirtual
+        u2(constants.method(method.getDeclaringClass(), method.getName(),
+            MethodType.methodType(method.getReturnType(), method.getParameterTypes())));
+        if (method.getReturnType() == long.class || method.getReturnType() == double.class) {
+            code.write(0x58); // pop2
+            maxStack = Math.max(maxStack, 2);
+        } else if (method.getReturnType() != void.class) {
+            code.write(0x57); // pop
+        }
+    }
+
+    private void arguments(Class<?>[] types, int base) {
+        for (int i = 0; i < types.length; i++) {
+            code.write(0x2A); // aload_0
+            push(index++);
+            code.write(0x32); // aaload
+            code.write(0xC0); // checkcast
+            u2(constants.type(types[i]));
+            maxStack = Math.max(maxStack, base + i + 2);
+        }
+        maxStack = Math.max(maxStack, base);
+    }
+
+    private void push(int value) {
+        if (value <= 5) {
+            code.write(0x03 + value); // iconst_<n>
+        } else if (value <= Byte.MAX_VALUE) {
+            code.write(0x10); // bipush
+            code.write(value);
+        } else {
+            code.write(0x11); // sipush
+            u2(value);
+        }
+    }
+
+    private void u2(int value) {
+        code.write(value >>> 8);
+        code.write(value);
+    }
+
+    private byte[] toByteArray(String className) {
+        int thisClass = constants.type(className);
+        int superClass = constants.type(internalName(Object.class));
+        int name = constants.utf8(METHOD_NAME);
+        int descriptor = constants.utf8(METHOD_TYPE.toMethodDescriptorString());
+        int codeAttribute = constants.utf8("Code");
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(VERSION);
+            constants.writeTo(out);
+            out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(0); // interfaces
+            out.writeShort(0); // fields
+            out.writeShort(1); // methods
+            out.writeShort(ACC_PUBLIC | ACC_STATIC);
+            out.writeShort(name);
+            out.writeShort(descriptor);
+            out.writeShort(1); // attributes
+            out.writeShort(codeAttribute);
+            out.writeInt(12 + code.size());
+            out.writeShort(maxStack);
+            out.writeShort(2); // max locals: dependencies, instance
+            out.writeInt(code.size());
+            code.writeTo(out);
+            out.writeShort(0); // exception table
+            out.writeShort(0); // code attributes
+            out.writeShort(0); // class attributes
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static class ConstantPool {
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final List<byte[]> entries = new ArrayList<>();
+
+        int utf8(String value) {
+            return indexes.computeIfAbsent("utf8:" + value, k -> add(out -> {
+                out.writeByte(1);
+                out.writeUTF(value);
+            }));
+        }
+
+        int type(Class<?> type) {
+            return type(internalName(type));
+        }
+
+        int type(String internalName) {
+            int name = utf8(internalName);
+            return indexes.computeIfAbsent("class:" + internalName, k -> add(out -> {
+                out.writeByte(7);
+                out.writeShort(name);
+            }));
+        }
+
+        int field(Class<?> owner, String name, Class<?> type) {
+            return member(9, owner, name, type.descriptorString());
+        }
+
+        int method(Class<?> owner, String name, MethodType type) {
+            return member(10, owner, name, type.toMethodDescriptorString());
+        }
+
+        private int member(int tag, Class<?> owner, String name, String descriptor) {
+            int ownerIndex = type(owner);
+            int nameIndex = utf8(name);
+            int descriptorIndex = utf8(descriptor);
+            int nameAndType = indexes.computeIfAbsent("nameAndType:" + name + descriptor, k -> add(out -> {
+                out.writeByte(12);
+                out.writeShort(nameIndex);
+                out.writeShort(descriptorIndex);
+            }));
+            return indexes.computeIfAbsent(tag + ":" + ownerIndex + ":" + nameAndType, k -> add(out -> {
+                out.writeByte(tag);
+                out.writeShort(ownerIndex);
+                out.writeShort(nameAndType);
+            }));
+        }
+
+        private int add(Entry entry) {
+            try {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                entry.writeTo(new DataOutputStream(bytes));
+                entries.add(bytes.toByteArray());
+                return entries.size();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeShort(entries.size() + 1);
+            for (byte[] entry : entries) {
+                out.write(entry);
+            }
+        }
+
+        interface Entry {
+            void writeTo(DataOutputStream out) throws IOException;
+        }
+    }
+}
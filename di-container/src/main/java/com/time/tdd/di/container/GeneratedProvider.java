@@ -0,0 +1,122 @@
+package com.time.tdd.di.container;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Member;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+import static java.lang.invoke.MethodHandles.Lookup.ClassOption.NESTMATE;
+
+/**
+ * instantiates through a hidden class defined next to the implementation
+ *
+ * @author XuJian
+ * @date 2023-03-12 16:25
+ **/
+class GeneratedProvider<T> implements ComponentProvider<T> {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private final Class<T> implementation;
+    private final MethodHandle factory;
+    private final InjectionProvider<T> lifecycle;
+    private final List<ComponentRef<?>> dependencies;
+    private final ComponentRef<?>[] required;
+
+    /**
+     * the lifecycle callbacks are still called through the reflective provider
+     */
+    private GeneratedProvider(Class<T> implementation, MethodHandle factory, InjectionProvider<T> lifecycle) {
+        this.implementation = implementation;
+        this.factory = factory;
+        this.lifecycle = lifecycle;
+        this.dependencies = lifecycle.getDependencies();
+        this.required = dependencies.toArray(ComponentRef<?>[]::new);
+    }
+
+    /**
+     * falls back to the reflective {@link InjectionProvider} if the generated class could not reach every inject member
+     */
+    static <T> ComponentProvider<T> of(Class<T> implementation) {
+        return of(implementation, new InjectionProvider<>(implementation));
+    }
+
+    static <T> ComponentProvider<T> of(Class<T> implementation, InjectionProvider<T> provider) {
+        if (!isAccessible(implementation, provider)) {
+            return provider;
+        }
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(implementation, LOOKUP)
+                .defineHiddenClass(FactoryClassWriter.write(implementation, provider.constructor(), provider.fields(),
+                    provider.methods()), true, NESTMATE);
+            MethodHandle factory = lookup.findStatic(lookup.lookupClass(), FactoryClassWriter.METHOD_NAME, FactoryClassWriter.METHOD_TYPE);
+            return new GeneratedProvider<>(implementation, factory, provider);
+        } catch (IllegalAccessException | NoSuchMethodException | LinkageError e) {
+            return provider;
+        }
+    }
+
+    private static boolean isAccessible(Class<?> implementation, InjectionProvider<?> provider) {
+        return Stream.of(Stream.<Member>of(provider.constructor()), provider.fields().stream(), provider.methods().stream())
+            .flatMap(s -> s).allMatch(member -> isAccessible(implementation, member))
+            && Stream.of(Stream.of(provider.constructor().getParameterTypes()), provider.fields().stream().map(f -> f.getType()),
+                provider.methods().stream().flatMap(m -> Arrays.stream(m.getParameterTypes())))
+            .flatMap(s -> s).allMatch(type -> !type.isPrimitive() && isAccessible(implementation, type));
+    }
+
+    private static boolean isAccessible(Class<?> implementation, Member member) {
+        if (Modifier.isPrivate(member.getModifiers())) {
+            return false;
+        }
+        return isSamePackage(implementation, member.getDeclaringClass())
+            || Modifier.isPublic(member.getModifiers()) && isAccessible(implementation, member.getDeclaringClass());
+    }
+
+    private static boolean isAccessible(Class<?> implementation, Class<?> type) {
+        Class<?> element = type.isArray() ? type.getComponentType() : type;
+        return element.isPrimitive() || isSamePackage(implementation, element) || Modifier.isPublic(element.getModifiers());
+    }
+
+    private static boolean isSamePackage(Class<?> implementation, Class<?> type) {
+        return implementation.getClassLoader() == type.getClassLoader()
+            && Objects.equals(implementation.getPackageName(), type.getPackageName());
+    }
+
+    @Override
+    public T get(Context context) {
+        return ComponentEvents.construct(context, implementation, this::construct);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T construct(Context context) {
+        Object[] dependencies = new Object[required.length];
+        for (int i = 0; i < required.length; i++) {
+            dependencies[i] = context instanceof Binding<?> binding ? binding.dependency(i) : context.get(required[i]).get();
+        }
+        try {
+            T instance = (T) (Object) factory.invokeExact(dependencies);
+            lifecycle.postConstruct(instance);
+            return instance;
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void destroy(T instance) {
+        lifecycle.destroy(instance);
+    }
+
+    boolean hasPreDestroy() {
+        return lifecycle.hasPreDestroy();
+    }
+
+    @Override
+    public List<ComponentRef<?>> getDependencies() {
+        return dependencies;
+    }
+}
@@ -2,22 +2,28 @@ package com.time.tdd.di.container;
 
 import com.time.tdd.di.container.exceptions.IllegalComponentException;
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Executable;
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Parameter;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.BiFunction;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.inject.Inject;
 import jakarta.inject.Qualifier;
 import static java.util.Arrays.stream;
@@ -29,42 +35,47 @@ import static java.util.stream.Stream.concat;
  **/
 class InjectionProvider<T> implements ComponentProvider<T> {
 
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    /**
+     * scanned once per class, shared by every binding and context of the implementation
+     */
+    private static final ClassValue<Metadata> metadata = new ClassValue<>() {
+        @Override
+        protected Metadata computeValue(Class<?> component) {
+            return Metadata.of(component);
+        }
+    };
+
     private final Injectable<Constructor<T>> injectConstructor;
     private final List<Injectable<Method>> injectMethods;
     private final List<Injectable<Field>> injectFields;
+    private final List<Injectable<Method>> postConstruct;
+    private final List<Injectable<Method>> preDestroy;
+    private final List<ComponentRef<?>> dependencies;
 
     public InjectionProvider(Class<T> component) {
-        if (Modifier.isAbstract(component.getModifiers())) {
-            throw new IllegalComponentException();
-        }
-
-
-        this.injectConstructor = getInjectConstructor(component);
-        this.injectMethods = getInjectMethods(component);
-        this.injectFields = getInjectFields(component);
-
-
-        if (injectFields.stream().map(Injectable::element).anyMatch(f -> Modifier.isFinal(f.getModifiers()))) {
-            throw new IllegalComponentException();
-        }
-        if (injectMethods.stream().map(Injectable::element).anyMatch(m -> m.getTypeParameters().length != 0)) {
-            throw new IllegalComponentException();
-        }
+        this(metadata.get(component));
     }
 
-
-    private static <T> boolean isOverrideByNoInjectMethod(Class<T> component, Method m) {
-        return stream(component.getDeclaredMethods()).filter(cm -> !cm.isAnnotationPresent(Inject.class))
-            .noneMatch(o -> isOverride(m, o));
+    @SuppressWarnings("unchecked")
+    private InjectionProvider(Metadata metadata) {
+        this.injectConstructor = (Injectable<Constructor<T>>) (Injectable<?>) metadata.constructor();
+        this.injectMethods = metadata.methods();
+        this.injectFields = metadata.fields();
+        this.postConstruct = metadata.postConstruct();
+        this.preDestroy = metadata.preDestroy();
+        this.dependencies = metadata.dependencies();
     }
 
-    private static boolean isOverrideByInjectMethod(List<Method> injectMethods, Method m) {
-        return injectMethods.stream().noneMatch(o -> isOverride(m, o));
-    }
-
-    private static boolean isOverride(Method m, Method o) {
-        return o.getName().equals(m.getName()) &&
-            Arrays.equals(o.getParameterTypes(), m.getParameterTypes());
+    /**
+     * for members restored from a {@link MetadataSnapshot}
+     */
+    static <T> InjectionProvider<T> of(Constructor<T> constructor, List<Field> fields, List<Method> methods,
+                                       List<Method> postConstruct, List<Method> preDestroy) {
+        return new InjectionProvider<>(Metadata.of(Injectable.of(constructor), fields.stream().map(Injectable::of).toList(),
+            methods.stream().map(Injectable::of).toList(), postConstruct.stream().map(Injectable::of).toList(),
+            preDestroy.stream().map(Injectable::of).toList()));
     }
 
     private static <T> List<T> traverse(Class<?> component, BiFunction<List<T>, Class<?>, List<T>> finder) {
@@ -94,15 +105,38 @@ class InjectionProvider<T> implements ComponentProvider<T> {
         return injectFields.stream().map(Injectable::of).toList();
     }
 
+    /**
+     * overridden inject methods are left out, overrides are found by signature
+     */
     private static List<Injectable<Method>> getInjectMethods(Class<?> component) {
+        Set<Signature> overridden = stream(component.getDeclaredMethods()).filter(m -> !m.isAnnotationPresent(Inject.class))
+            .map(Signature::of).collect(Collectors.toSet());
         List<Method> injectMethods = traverse(component, (methods, current) -> injectable(current.getDeclaredMethods())
-            .filter(m -> isOverrideByInjectMethod(methods, m))
-            .filter(m -> isOverrideByNoInjectMethod(component, m))
+            .filter(m -> overridden.add(Signature.of(m)))
             .toList());
         Collections.reverse(injectMethods);
         return injectMethods.stream().map(Injectable::of).toList();
     }
 
+    /**
+     * superclasses first, an overridden callback only if the override is annotated too
+     */
+    private static List<Injectable<Method>> getLifecycleMethods(Class<?> component, Class<? extends Annotation> callback) {
+        Set<Signature> overridden = new HashSet<>();
+        List<Method> callbacks = traverse(component, (methods, current) -> {
+            List<Method> found = stream(current.getDeclaredMethods()).filter(m -> m.isAnnotationPresent(callback))
+                .filter(m -> Modifier.isPrivate(m.getModifiers()) || !overridden.contains(Signature.of(m))).toList();
+            stream(current.getDeclaredMethods()).filter(m -> !Modifier.isPrivate(m.getModifiers())).map(Signature::of).forEach(overridden::add);
+            return found;
+        });
+        if (callbacks.stream().anyMatch(m -> m.getParameterCount() != 0 || Modifier.isStatic(m.getModifiers()))) {
+            throw new IllegalComponentException();
+        }
+        Collections.reverse(callbacks);
+        return callbacks.stream().map(Injectable::of).toList();
+    }
+
+    @SuppressWarnings("unchecked")
     private static <T> Injectable<Constructor<T>> getInjectConstructor(Class<T> component) {
         List<Constructor<?>> injectConstructors = injectable(component.getConstructors()).toList();
         if (injectConstructors.size() > 1) {
@@ -114,38 +148,168 @@ class InjectionProvider<T> implements ComponentProvider<T> {
 
     @Override
     public T get(Context context) {
+        return ComponentEvents.construct(context, injectConstructor.element().getDeclaringClass(), this::construct);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T construct(Context context) {
         try {
-            T instance = injectConstructor.element().newInstance(injectConstructor.toDependencies(context));
+            int offset = 0;
+            T instance = (T) (Object) injectConstructor.invoker().invokeExact(injectConstructor.toDependencies(context, offset));
+            offset += injectConstructor.required().length;
             for (Injectable<Field> field : injectFields) {
-                field.element().set(instance, field.toDependencies(context)[0]);
+                field.invoker().invokeExact((Object) instance, field.toDependencies(context, offset)[0]);
+                offset++;
             }
             for (Injectable<Method> method : injectMethods) {
-                method.element().invoke(instance, method.toDependencies(context));
+                method.invoker().invokeExact((Object) instance, method.toDependencies(context, offset));
+                offset += method.required().length;
             }
+            postConstruct(instance);
             return instance;
-        } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
             throw new RuntimeException(e);
         }
     }
 
+    void postConstruct(T instance) throws Throwable {
+        for (Injectable<Method> callback : postConstruct) {
+            callback.invoker().invokeExact((Object) instance, new Object[0]);
+        }
+    }
+
+    @Override
+    public void destroy(T instance) {
+        try {
+            for (Injectable<Method> callback : preDestroy) {
+                callback.invoker().invokeExact((Object) instance, new Object[0]);
+            }
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    Constructor<T> constructor() {
+        return injectConstructor.element();
+    }
+
+    List<Field> fields() {
+        return injectFields.stream().map(Injectable::element).toList();
+    }
+
+    List<Method> methods() {
+        return injectMethods.stream().map(Injectable::element).toList();
+    }
+
+    List<Method> postConstructMethods() {
+        return postConstruct.stream().map(Injectable::element).toList();
+    }
+
+    List<Method> preDestroyMethods() {
+        return preDestroy.stream().map(Injectable::element).toList();
+    }
+
+    boolean hasPreDestroy() {
+        return !preDestroy.isEmpty();
+    }
+
     @Override
     public List<ComponentRef<?>> getDependencies() {
-        return concat(concat(Stream.of(injectConstructor), injectFields.stream()), injectMethods.stream())
-            .flatMap(i -> stream(i.required())).toList();
+        return dependencies;
+    }
+
+    private record Signature(String name, List<Class<?>> parameters) {
+        static Signature of(Method method) {
+            return new Signature(method.getName(), List.of(method.getParameterTypes()));
+        }
     }
 
-    record Injectable<Element extends AccessibleObject>(Element element, ComponentRef<?>[] required) {
+    private record Metadata(Injectable<? extends Constructor<?>> constructor, List<Injectable<Field>> fields,
+                            List<Injectable<Method>> methods, List<Injectable<Method>> postConstruct,
+                            List<Injectable<Method>> preDestroy, List<ComponentRef<?>> dependencies) {
+        static Metadata of(Class<?> component) {
+            if (Modifier.isAbstract(component.getModifiers())) {
+                throw new IllegalComponentException();
+            }
+            Injectable<? extends Constructor<?>> constructor = getInjectConstructor(component);
+            List<Injectable<Method>> methods = getInjectMethods(component);
+            List<Injectable<Field>> fields = getInjectFields(component);
 
-        static <Element extends Executable> Injectable<Element> of(Element constructor) {
-            return new Injectable<>(constructor,
-                stream(constructor.getParameters()).map(Injectable::toComponentRef).toArray(ComponentRef<?>[]::new));
+            if (fields.stream().map(Injectable::element).anyMatch(f -> Modifier.isFinal(f.getModifiers()))) {
+                throw new IllegalComponentException();
+            }
+            if (methods.stream().map(Injectable::element).anyMatch(m -> m.getTypeParameters().length != 0)) {
+                throw new IllegalComponentException();
+            }
+            return of(constructor, fields, methods, getLifecycleMethods(component, PostConstruct.class),
+                getLifecycleMethods(component, PreDestroy.class));
+        }
+
+        static Metadata of(Injectable<? extends Constructor<?>> constructor, List<Injectable<Field>> fields,
+                           List<Injectable<Method>> methods, List<Injectable<Method>> postConstruct,
+                           List<Injectable<Method>> preDestroy) {
+            return new Metadata(constructor, fields, methods, postConstruct, preDestroy,
+                concat(concat(Stream.of(constructor), fields.stream()), methods.stream()).flatMap(i -> stream(i.required())).toList());
+        }
+    }
+
+    /**
+     * constructors take (Object[])Object, fields (Object, Object)void and methods (Object, Object[])void
+     */
+    record Injectable<Element extends AccessibleObject>(Element element, ComponentRef<?>[] required, MethodHandle invoker) {
+
+        static <Element extends Executable> Injectable<Element> of(Element executable) {
+            return new Injectable<>(executable,
+                stream(executable.getParameters()).map(Injectable::toComponentRef).toArray(ComponentRef<?>[]::new),
+                compile(executable));
         }
 
         static Injectable<Field> of(Field field) {
-            return new Injectable<>(field, new ComponentRef<?>[] {toComponentRef(field)});
+            return new Injectable<>(field, new ComponentRef<?>[] {toComponentRef(field)}, compile(field));
+        }
+
+        private static MethodHandle compile(Executable executable) {
+            try {
+                MethodHandles.Lookup lookup = lookupIn(executable.getDeclaringClass());
+                if (executable instanceof Constructor<?> constructor) {
+                    return lookup.unreflectConstructor(constructor)
+                        .asSpreader(Object[].class, constructor.getParameterCount())
+                        .asType(MethodType.methodType(Object.class, Object[].class));
+                }
+                Method method = (Method) executable;
+                return lookup.unreflect(method)
+                    .asSpreader(Object[].class, method.getParameterCount())
+                    .asType(MethodType.methodType(void.class, Object.class, Object[].class));
+            } catch (IllegalAccessException e) {
+                throw new IllegalComponentException();
+            }
         }
 
-        private static ComponentRef toComponentRef(Field field) {
+        private static MethodHandle compile(Field field) {
+            try {
+                return lookupIn(field.getDeclaringClass()).unreflectSetter(field)
+                    .asType(MethodType.methodType(void.class, Object.class, Object.class));
+            } catch (IllegalAccessException e) {
+                throw new IllegalComponentException();
+            }
+        }
+
+        /**
+         * classes of modules not open to the container, e.g. of the jdk, are left with public access
+         */
+        private static MethodHandles.Lookup lookupIn(Class<?> type) {
+            try {
+                return MethodHandles.privateLookupIn(type, LOOKUP);
+            } catch (IllegalAccessException e) {
+                return LOOKUP;
+            }
+        }
+
+        private static ComponentRef<?> toComponentRef(Field field) {
             return ComponentRef.of(field.getGenericType(), getQualifier(field));
         }
 
@@ -162,7 +326,17 @@ class InjectionProvider<T> implements ComponentProvider<T> {
             return ComponentRef.of(parameter.getParameterizedType(), getQualifier(parameter));
         }
 
-        Object[] toDependencies(Context context) {
+        /**
+         * offset is the index of the first required ref in the dependencies of the provider
+         */
+        Object[] toDependencies(Context context, int offset) {
+            if (context instanceof Binding<?> binding) {
+                Object[] dependencies = new Object[required.length];
+                for (int i = 0; i < required.length; i++) {
+                    dependencies[i] = binding.dependency(offset + i);
+                }
+                return dependencies;
+            }
             return stream(required).map(context::get).map(Optional::get).toArray();
         }
     }
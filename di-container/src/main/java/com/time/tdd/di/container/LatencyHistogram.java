@@ -0,0 +1,58 @@
+package com.time.tdd.di.container;
+
+import java.util.Arrays;
+
+/**
+ * bucket i counts the latencies from 2^i up to 2^(i+1) nanoseconds
+ *
+ * @author XuJian
+ * @date 2023-03-22 20:30
+ **/
+public record LatencyHistogram(long[] buckets) {
+    public LatencyHistogram {
+        buckets = buckets.clone();
+    }
+
+    static int bucket(long nanos) {
+        return 63 - Long.numberOfLeadingZeros(Math.max(nanos, 1));
+    }
+
+    public long count() {
+        return Arrays.stream(buckets).sum();
+    }
+
+    /**
+     * the upper bound of the bucket holding the percentile, 0 if nothing was recorded
+     */
+    public long percentile(double percentile) {
+        long rank = (long) Math.ceil(count() * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= Math.max(rank, 1)) {
+                return i >= 62 ? Long.MAX_VALUE : 1L << (i + 1);
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public long[] buckets() {
+        return buckets.clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof LatencyHistogram that && Arrays.equals(buckets, that.buckets);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(buckets);
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyHistogram[count=" + count() + ", p50=" + percentile(50) + "ns, p99=" + percentile(99) + "ns]";
+    }
+}
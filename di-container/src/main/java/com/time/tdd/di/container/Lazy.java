@@ -0,0 +1,11 @@
+package com.time.tdd.di.container;
+
+/**
+ * resolved on the first get and kept, a prototype is constructed once per injection point
+ *
+ * @author XuJian
+ * @date 2023-03-27 20:10
+ **/
+public interface Lazy<T> {
+    T get();
+}
@@ -0,0 +1,35 @@
+package com.time.tdd.di.container;
+
+import jakarta.inject.Provider;
+
+/**
+ * resolves once, the source is dropped afterwards. a failed resolution is tried again on the next get
+ *
+ * @author XuJian
+ * @date 2023-03-27 20:20
+ **/
+final class LazyInstance<T> implements Lazy<T> {
+    private volatile Provider<T> source;
+    private T instance;
+
+    LazyInstance(Provider<T> source) {
+        this.source = source;
+    }
+
+    /**
+     * the instance is written before the source is cleared, so a get seeing no source sees the instance
+     */
+    @Override
+    public T get() {
+        if (source != null) {
+            synchronized (this) {
+                Provider<T> source = this.source;
+                if (source != null) {
+                    instance = source.get();
+                    this.source = null;
+                }
+            }
+        }
+        return instance;
+    }
+}
@@ -0,0 +1,39 @@
+package com.time.tdd.di.container;
+
+/**
+ * shortest first, an instance may not be injected into one held longer
+ *
+ * @author XuJian
+ * @date 2023-03-28 20:00
+ **/
+enum Lifetime {
+    /**
+     * held by one request, which may run on several threads
+     */
+    REQUEST,
+    /**
+     * held until expired or evicted
+     */
+    CACHED,
+    POOL,
+    SINGLETON;
+
+    /**
+     * null for prototypes and unknown scopes
+     */
+    static Lifetime of(ComponentProvider<?> provider) {
+        if (provider instanceof SingletonProvider<?>) {
+            return SINGLETON;
+        }
+        if (provider instanceof PooledProvider<?>) {
+            return POOL;
+        }
+        if (provider instanceof CachedProvider<?>) {
+            return CACHED;
+        }
+        if (provider instanceof RequestScopedProvider<?>) {
+            return REQUEST;
+        }
+        return null;
+    }
+}
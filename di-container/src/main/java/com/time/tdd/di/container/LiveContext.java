@@ -0,0 +1,280 @@
+package com.time.tdd.di.container;
+
+import com.time.tdd.di.container.exceptions.ContextCloseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * @author XuJian
+ * @date 2023-03-27 21:00
+ **/
+public final class LiveContext implements Context {
+    private final AtomicReference<Version> current;
+    private final ReentrantLock rebinding = new ReentrantLock();
+    private final Set<Version> retiring = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    LiveContext(ContextConfig config, ResolvedContext context) {
+        this.current = new AtomicReference<>(new Version(config, context, 0));
+    }
+
+    /**
+     * the current version stays if the changes fail or do not validate
+     */
+    public void rebind(Consumer<ContextConfig> changes) {
+        rebinding.lock();
+        try {
+            Version version = current.get();
+            ContextConfig config = version.config().copy();
+            changes.accept(config);
+            config.refresh(version.config());
+            ResolvedContext context = config.resolve();
+
+            Set<ComponentProvider<?>> bound = Collections.newSetFromMap(new IdentityHashMap<>());
+            bound.addAll(config.components().values());
+            Map<ComponentProvider<?>, Component> retired = new IdentityHashMap<>();
+            version.config().components().forEach((component, provider) -> {
+                if (!bound.contains(provider)) {
+                    retired.putIfAbsent(provider, component);
+                }
+            });
+            version.retire(retired);
+            synchronized (retiring) {
+                retiring.add(version);
+            }
+            current.set(new Version(config.copy(), context, version.number() + 1));
+            release(version);
+        } finally {
+            rebinding.unlock();
+        }
+    }
+
+    /**
+     * 0 for the context got from the config, one more for every rebind
+     */
+    public long version() {
+        return current.get().number();
+    }
+
+    @Override
+    public <ComponentType> Optional<ComponentType> get(ComponentRef<ComponentType> ref) {
+        return read(context -> context.get(ref));
+    }
+
+    /**
+     * the version is held until the construction completes
+     */
+    @Override
+    public <ComponentType> CompletableFuture<ComponentType> getAsync(ComponentRef<ComponentType> ref) {
+        Version version = acquire();
+        try {
+            return version.context().getAsync(ref).whenComplete((instance, failure) -> release(version));
+        } catch (RuntimeException | Error e) {
+            release(version);
+            throw e;
+        }
+    }
+
+    /**
+     * the handle gets the component from the version current on every get
+     */
+    @Override
+    public <ComponentType> ComponentHandle<ComponentType> handle(ComponentRef<ComponentType> ref) {
+        Component component = read(context -> context.handle(ref)).component();
+        return new ComponentHandle<>() {
+            @Override
+            public ComponentType get() {
+                return read(context -> context.handle(ref).get());
+            }
+
+            @Override
+            public Component component() {
+                return component;
+            }
+        };
+    }
+
+    @Override
+    public <ComponentType> void release(ComponentRef<ComponentType> ref, ComponentType instance) {
+        read(context -> {
+            context.release(ref, instance);
+            return null;
+        });
+    }
+
+    @Override
+    public Optional<PoolMetrics> poolMetrics(ComponentRef<?> ref) {
+        return read(context -> context.poolMetrics(ref));
+    }
+
+    @Override
+    public Optional<CacheMetrics> cacheMetrics(ComponentRef<?> ref) {
+        return read(context -> context.cacheMetrics(ref));
+    }
+
+    /**
+     * of the current version, counted from the rebind that published it
+     */
+    @Override
+    public Map<Component, ComponentStatistics> statistics() {
+        return read(ResolvedContext::statistics);
+    }
+
+    @Override
+    public Optional<StartupProfile> profile() {
+        return read(ResolvedContext::profile);
+    }
+
+    /**
+     * closes the current version, then the providers retired by rebinds whose gets have not all finished
+     */
+    @Override
+    public void close() {
+        rebinding.lock();
+        try {
+            List<Component> undestroyed = new ArrayList<>();
+            List<Throwable> failures = new ArrayList<>();
+            try {
+                current.get().context().close();
+            } catch (ContextCloseException e) {
+                undestroyed.addAll(e.getComponents());
+                failures.addAll(List.of(e.getSuppressed()));
+            }
+            List<Version> versions;
+            synchronized (retiring) {
+                versions = List.copyOf(retiring);
+                retiring.clear();
+            }
+            for (Version version : versions) {
+                version.closeRetired();
+                version.report(undestroyed, failures);
+            }
+            if (!undestroyed.isEmpty()) {
+                ContextCloseException exception = new ContextCloseException(undestroyed);
+                failures.forEach(exception::addSuppressed);
+                throw exception;
+            }
+        } finally {
+            rebinding.unlock();
+        }
+    }
+
+    private <R> R read(Function<ResolvedContext, R> get) {
+        Version version = acquire();
+        try {
+            return get.apply(version.context());
+        } finally {
+            release(version);
+        }
+    }
+
+    /**
+     * a version with no readers left is retired already, the current one is read again
+     */
+    private Version acquire() {
+        while (true) {
+            Version version = current.get();
+            if (version.acquire()) {
+                return version;
+            }
+        }
+    }
+
+    /**
+     * the last reader of a retired version closes the providers it retired, failures are reported by {@link #close()}
+     */
+    private void release(Version version) {
+        if (version.release() && version.closeRetired()) {
+            synchronized (retiring) {
+                retiring.remove(version);
+            }
+        }
+    }
+
+    /**
+     * readers counts the gets running in the version, and one for being current
+     */
+    private static final class Version {
+        private final ContextConfig config;
+        private final ResolvedContext context;
+        private final long number;
+        private final AtomicInteger readers = new AtomicInteger(1);
+        private Map<ComponentProvider<?>, Component> retired = Map.of();
+        private final List<Component> undestroyed = new ArrayList<>();
+        private final List<Throwable> failures = new ArrayList<>();
+
+        Version(ContextConfig config, ResolvedContext context, long number) {
+            this.config = config;
+            this.context = context;
+            this.number = number;
+        }
+
+        ContextConfig config() {
+            return config;
+        }
+
+        ResolvedContext context() {
+            return context;
+        }
+
+        long number() {
+            return number;
+        }
+
+        boolean acquire() {
+            int count;
+            do {
+                count = readers.get();
+                if (count == 0) {
+                    return false;
+                }
+            } while (!readers.compareAndSet(count, count + 1));
+            return true;
+        }
+
+        /**
+         * true for the last reader
+         */
+        boolean release() {
+            return readers.decrementAndGet() == 0;
+        }
+
+        void retire(Map<ComponentProvider<?>, Component> retired) {
+            this.retired = retired;
+        }
+
+        /**
+         * once, by the last reader or by closing the live context, whichever comes first
+         *
+         * @return false if some were not destroyed
+         */
+        synchronized boolean closeRetired() {
+            Map<ComponentProvider<?>, Component> closing = retired;
+            retired = Map.of();
+            closing.forEach((provider, component) -> {
+                try {
+                    provider.close();
+                } catch (RuntimeException e) {
+                    undestroyed.add(component);
+                    failures.add(e);
+                }
+            });
+            return undestroyed.isEmpty();
+        }
+
+        synchronized void report(List<Component> undestroyed, List<Throwable> failures) {
+            undestroyed.addAll(this.undestroyed);
+            failures.addAll(this.failures);
+        }
+    }
+}
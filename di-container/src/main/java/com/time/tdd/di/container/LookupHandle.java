@@ -0,0 +1,22 @@
+package com.time.tdd.di.container;
+
+import com.time.tdd.di.container.exceptions.DependencyNotFoundException;
+
+/**
+ * the handle of contexts that cannot resolve a component ahead, looking it up on every get
+ *
+ * @author XuJian
+ * @date 2023-03-23 20:20
+ **/
+record LookupHandle<T>(Context context, ComponentRef<T> ref) implements ComponentHandle<T> {
+
+    @Override
+    public T get() {
+        return context.get(ref).orElseThrow(() -> new DependencyNotFoundException(ref.component()));
+    }
+
+    @Override
+    public Component component() {
+        return ref.component();
+    }
+}
@@ -0,0 +1,374 @@
+package com.time.tdd.di.container;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import java.util.zip.ZipFile;
+
+/**
+ * <pre>
+ * magic version graph-fingerprint class-count
+ * class: name checksum constructor-parameters fields methods post-construct pre-destroy
+ * </pre>
+ *
+ * @author XuJian
+ * @date 2023-03-19 15:30
+ **/
+class MetadataSnapshot {
+    private static final int MAGIC = 0x44494d53;
+    private static final int VERSION = 4;
+    private static final System.Logger LOGGER = System.getLogger(MetadataSnapshot.class.getName());
+    private static final long OFFSET = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+    private static final Map<String, Long> DIRECTORY = Map.of("", -1L);
+    private static final Map<String, Class<?>> PRIMITIVES = Arrays.stream(new Class<?>[] {boolean.class, byte.class, char.class,
+        short.class, int.class, long.class, float.class, double.class}).collect(Collectors.toMap(Class::getName, c -> c));
+
+    private final Path path;
+    private final Map<String, Entry> recorded;
+    private final Map<String, Entry> scanned = new HashMap<>();
+    private final Map<Path, Map<String, Long>> locations = new HashMap<>();
+    private final long validated;
+    private boolean dirty;
+
+    private MetadataSnapshot(Path path, Map<String, Entry> recorded, long validated) {
+        this.path = path;
+        this.recorded = recorded;
+        this.validated = validated;
+    }
+
+    /**
+     * a missing or unreadable file gives an empty snapshot
+     */
+    static MetadataSnapshot load(Path path) {
+        if (!Files.isRegularFile(path)) {
+            return new MetadataSnapshot(path, new HashMap<>(), 0);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return new MetadataSnapshot(path, new HashMap<>(), 0);
+            }
+            long validated = buffer.getLong();
+            int count = buffer.getInt();
+            Map<String, Entry> recorded = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                Entry entry = Entry.read(buffer);
+                recorded.put(entry.name(), entry);
+            }
+            return new MetadataSnapshot(path, recorded, validated);
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException e) {
+            return new MetadataSnapshot(path, new HashMap<>(), 0);
+        }
+    }
+
+    <T> InjectionProvider<T> provider(Class<T> implementation) {
+        Entry entry = recorded.get(implementation.getName());
+        long checksum = checksum(implementation);
+        if (entry != null && entry.checksum() == checksum) {
+            try {
+                InjectionProvider<T> provider = entry.restore(implementation);
+                scanned.put(entry.name(), entry);
+                return provider;
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // a recorded member or type is gone, scan again
+            }
+        }
+        InjectionProvider<T> provider = new InjectionProvider<>(implementation);
+        if (checksum != 0) {
+            scanned.put(implementation.getName(), Entry.of(implementation.getName(), checksum, provider));
+            dirty = true;
+        }
+        return provider;
+    }
+
+    boolean isValidated(long fingerprint) {
+        return validated != 0 && validated == fingerprint;
+    }
+
+    /**
+     * a failure is logged and not thrown, the snapshot is only a cache
+     */
+    void save(long fingerprint) {
+        if (!dirty && fingerprint == validated) {
+            return;
+        }
+        try {
+            Path temp = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+            try (OutputStream file = Files.newOutputStream(temp); DataOutputStream out = new DataOutputStream(file)) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(fingerprint);
+                out.writeInt(scanned.size());
+                for (Entry entry : scanned.values()) {
+                    entry.write(out);
+                }
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.log(System.Logger.Level.WARNING, "failed to record the snapshot " + path, e);
+        }
+    }
+
+    /**
+     * independent of the iteration order, 0 is kept for no graph recorded
+     *
+     * @param implementations the class a provider injects, null for providers not bound to a class
+     */
+    long fingerprint(Map<Component, ComponentProvider<?>> components, Function<ComponentProvider<?>, Class<?>> implementations) {
+        long fingerprint = components.size();
+        for (Map.Entry<Component, ComponentProvider<?>> entry : components.entrySet()) {
+            long hash = hash(hash(OFFSET, entry.getKey().genericType().getTypeName()), String.valueOf(entry.getKey().qualifier()));
+            Class<?> type = implementations.apply(entry.getValue());
+            Entry implementation = type == null ? null : scanned.get(type.getName());
+            if (implementation != null) {
+                hash = hash(hash(hash, implementation.name()), implementation.checksum());
+            } else {
+                for (ComponentRef<?> dependency : entry.getValue().getDependencies()) {
+                    hash = hash(hash(hash, dependency.component().genericType().getTypeName()),
+                        String.valueOf(dependency.component().qualifier()));
+                    if (dependency.isContainer()) {
+                        hash = hash(hash, dependency.getContainer().getTypeName());
+                    }
+                }
+            }
+            fingerprint += hash;
+        }
+        return fingerprint == 0 ? 1 : fingerprint;
+    }
+
+    private static long hash(long hash, String chars) {
+        for (int i = 0; i < chars.length(); i++) {
+            hash = (hash ^ chars.charAt(i)) * PRIME;
+        }
+        return (hash ^ '|') * PRIME;
+    }
+
+    private static long hash(long hash, long value) {
+        for (int i = 0; i < Long.BYTES; i++, value >>>= 8) {
+            hash = (hash ^ (value & 0xff)) * PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * of the class and its superclasses up to the runtime ones, 0 if any is not loaded from a jar or directory
+     */
+    long checksum(Class<?> type) {
+        CRC32 crc = new CRC32();
+        for (Class<?> current = type; current != null && !isRuntime(current); current = current.getSuperclass()) {
+            long checksum = checksumOf(current);
+            if (checksum < 0) {
+                return 0;
+            }
+            for (int i = 0; i < Integer.BYTES; i++, checksum >>>= 8) {
+                crc.update((int) checksum);
+            }
+        }
+        return crc.getValue() + 1;
+    }
+
+    private static boolean isRuntime(Class<?> type) {
+        ClassLoader loader = type.getClassLoader();
+        return loader == null || loader == ClassLoader.getPlatformClassLoader();
+    }
+
+    /**
+     * the CRC32 a jar records for the entry, or of the class file in a directory, -1 if unknown
+     */
+    private long checksumOf(Class<?> type) {
+        CodeSource source = type.getProtectionDomain().getCodeSource();
+        URL url = source == null ? null : source.getLocation();
+        if (url == null) {
+            return -1;
+        }
+        String name = type.getName().replace('.', '/') + ".class";
+        try {
+            Path location = Path.of(url.toURI());
+            Map<String, Long> entries = locations.computeIfAbsent(location, MetadataSnapshot::entries);
+            return entries != DIRECTORY ? entries.getOrDefault(name, -1L) : checksumOf(location.resolve(name));
+        } catch (URISyntaxException | IllegalArgumentException | FileSystemNotFoundException e) {
+            return -1;
+        }
+    }
+
+    private static Map<String, Long> entries(Path location) {
+        if (Files.isDirectory(location)) {
+            return DIRECTORY;
+        }
+        Map<String, Long> entries = new HashMap<>();
+        try (ZipFile jar = new ZipFile(location.toFile())) {
+            jar.stream().filter(entry -> entry.getName().endsWith(".class") && entry.getCrc() != -1)
+                .forEach(entry -> entries.put(entry.getName(), entry.getCrc()));
+        } catch (IOException e) {
+            // not a jar, its classes have no checksum
+        }
+        return entries;
+    }
+
+    private static long checksumOf(Path file) {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[8192];
+        try (InputStream in = Files.newInputStream(file)) {
+            for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+                crc.update(buffer, 0, read);
+            }
+            return crc.getValue();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static Class<?> type(String name, ClassLoader loader) throws ClassNotFoundException {
+        Class<?> primitive = PRIMITIVES.get(name);
+        return primitive != null ? primitive : Class.forName(name, false, loader);
+    }
+
+    private record MethodEntry(String declaring, String name, List<String> parameters) {
+    }
+
+    private record FieldEntry(String declaring, String name) {
+    }
+
+    private record Entry(String name, long checksum, List<String> constructor, List<FieldEntry> fields,
+                         List<MethodEntry> methods, List<MethodEntry> postConstruct, List<MethodEntry> preDestroy) {
+        static Entry of(String name, long checksum, InjectionProvider<?> provider) {
+            return new Entry(name, checksum, names(provider.constructor().getParameterTypes()),
+                provider.fields().stream().map(f -> new FieldEntry(f.getDeclaringClass().getName(), f.getName())).toList(),
+                entries(provider.methods()), entries(provider.postConstructMethods()), entries(provider.preDestroyMethods()));
+        }
+
+        private static List<MethodEntry> entries(List<Method> methods) {
+            return methods.stream().map(m -> new MethodEntry(m.getDeclaringClass().getName(), m.getName(), names(m.getParameterTypes())))
+                .toList();
+        }
+
+        private static List<String> names(Class<?>[] types) {
+            return Arrays.stream(types).map(Class::getName).toList();
+        }
+
+        <T> InjectionProvider<T> restore(Class<T> implementation) throws ReflectiveOperationException {
+            ClassLoader loader = implementation.getClassLoader();
+            Constructor<T> injectConstructor = implementation.getDeclaredConstructor(types(constructor, loader));
+            List<Field> injectFields = new ArrayList<>();
+            for (FieldEntry field : fields) {
+                injectFields.add(type(field.declaring(), loader).getDeclaredField(field.name()));
+            }
+            return InjectionProvider.of(injectConstructor, injectFields, methods(methods, loader), methods(postConstruct, loader),
+                methods(preDestroy, loader));
+        }
+
+        private static List<Method> methods(List<MethodEntry> entries, ClassLoader loader) throws ReflectiveOperationException {
+            List<Method> methods = new ArrayList<>();
+            for (MethodEntry method : entries) {
+                methods.add(type(method.declaring(), loader).getDeclaredMethod(method.name(), types(method.parameters(), loader)));
+            }
+            return methods;
+        }
+
+        private static Class<?>[] types(List<String> names, ClassLoader loader) throws ClassNotFoundException {
+            Class<?>[] types = new Class<?>[names.size()];
+            for (int i = 0; i < types.length; i++) {
+                types[i] = type(names.get(i), loader);
+            }
+            return types;
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            writeString(out, name);
+            out.writeLong(checksum);
+            writeStrings(out, constructor);
+            out.writeInt(fields.size());
+            for (FieldEntry field : fields) {
+                writeString(out, field.declaring());
+                writeString(out, field.name());
+            }
+            writeMethods(out, methods);
+            writeMethods(out, postConstruct);
+            writeMethods(out, preDestroy);
+        }
+
+        private static void writeMethods(DataOutputStream out, List<MethodEntry> methods) throws IOException {
+            out.writeInt(methods.size());
+            for (MethodEntry method : methods) {
+                writeString(out, method.declaring());
+                writeString(out, method.name());
+                writeStrings(out, method.parameters());
+            }
+        }
+
+        static Entry read(ByteBuffer in) {
+            String name = readString(in);
+            long checksum = in.getLong();
+            List<String> constructor = readStrings(in);
+            List<FieldEntry> fields = new ArrayList<>();
+            for (int i = in.getInt(); i > 0; i--) {
+                fields.add(new FieldEntry(readString(in), readString(in)));
+            }
+            return new Entry(name, checksum, constructor, fields, readMethods(in), readMethods(in), readMethods(in));
+        }
+
+        private static List<MethodEntry> readMethods(ByteBuffer in) {
+            List<MethodEntry> methods = new ArrayList<>();
+            for (int i = in.getInt(); i > 0; i--) {
+                methods.add(new MethodEntry(readString(in), readString(in), readStrings(in)));
+            }
+            return methods;
+        }
+
+        private static void writeStrings(DataOutputStream out, List<String> strings) throws IOException {
+            out.writeInt(strings.size());
+            for (String string : strings) {
+                writeString(out, string);
+            }
+        }
+
+        private static void writeString(DataOutputStream out, String string) throws IOException {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        private static List<String> readStrings(ByteBuffer in) {
+            List<String> strings = new ArrayList<>();
+            for (int i = in.getInt(); i > 0; i--) {
+                strings.add(readString(in));
+            }
+            return strings;
+        }
+
+        private static String readString(ByteBuffer in) {
+            int length = in.getInt();
+            if (length > in.remaining()) {
+                throw new BufferUnderflowException();
+            }
+            byte[] bytes = new byte[length];
+            in.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
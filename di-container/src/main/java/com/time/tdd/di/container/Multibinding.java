@@ -0,0 +1,98 @@
+package com.time.tdd.di.container;
+
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * implementations bound under several qualifiers are an element once, collections of singletons are shared
+ *
+ * @author XuJian
+ * @date 2023-03-24 20:10
+ **/
+class Multibinding {
+    static final Multibinding EMPTY = new Multibinding(new Binding<?>[0]);
+
+    private final Binding<?>[] bindings;
+    private final Binding<?>[] elements;
+    private final boolean singletons;
+    private volatile List<Object> list;
+    private volatile Set<Object> set;
+
+    /**
+     * of the bindings sharing a provider only the first is an element
+     */
+    private Multibinding(Binding<?>[] bindings) {
+        Set<ComponentProvider<?>> providers = new HashSet<>();
+        this.bindings = bindings;
+        this.elements = Arrays.stream(bindings).filter(binding -> providers.add(binding.provider())).toArray(Binding<?>[]::new);
+        this.singletons = Arrays.stream(elements).allMatch(Binding::isSingleton);
+    }
+
+    static Multibinding of(Stream<Binding<?>> bindings) {
+        return new Multibinding(bindings.toArray(Binding<?>[]::new));
+    }
+
+    /**
+     * from every binding, an element shared with another qualifier may be kept under that one
+     */
+    Multibinding qualified(Component qualified) {
+        return new Multibinding(Arrays.stream(bindings).filter(binding -> binding.component().isSameQualifier(qualified))
+            .toArray(Binding<?>[]::new));
+    }
+
+    /**
+     * every binding of the type, also the ones sharing a provider with another
+     */
+    Stream<Binding<?>> bindings() {
+        return Arrays.stream(bindings);
+    }
+
+    Stream<Binding<?>> elements() {
+        return Arrays.stream(elements);
+    }
+
+    /**
+     * true if every element is a singleton, so that the collections are shared
+     */
+    boolean singletons() {
+        return singletons;
+    }
+
+    Object get(Type container) {
+        return container == Set.class ? set() : list();
+    }
+
+    private List<Object> list() {
+        List<Object> list = this.list;
+        if (list == null) {
+            list = List.of(instances());
+            if (singletons) {
+                this.list = list;
+            }
+        }
+        return list;
+    }
+
+    private Set<Object> set() {
+        Set<Object> set = this.set;
+        if (set == null) {
+            set = Set.copyOf(Arrays.asList(instances()));
+            if (singletons) {
+                this.set = set;
+            }
+        }
+        return set;
+    }
+
+    private Object[] instances() {
+        Object[] instances = new Object[elements.length];
+        for (int i = 0; i < instances.length; i++) {
+            instances[i] = elements[i].get();
+        }
+        return instances;
+    }
+}
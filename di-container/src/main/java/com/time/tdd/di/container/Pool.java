@@ -0,0 +1,34 @@
+package com.time.tdd.di.container;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import jakarta.inject.Scope;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * instances are borrowed by {@link Context#get(ComponentRef)} and given back by {@link Context#release(ComponentRef, Object)}
+ *
+ * @author XuJian
+ * @date 2023-03-17 20:30
+ **/
+@Scope
+@Documented
+@Retention(RUNTIME)
+public @interface Pool {
+    /**
+     * idle instances kept when evicting
+     */
+    int min() default 0;
+
+    int max() default 8;
+
+    /**
+     * how long to wait for an instance to be released once max are borrowed, 0 to fail immediately
+     */
+    long timeoutMillis() default 0;
+
+    /**
+     * how long an instance may stay idle before being evicted, 0 to never evict
+     */
+    long idleMillis() default 0;
+}
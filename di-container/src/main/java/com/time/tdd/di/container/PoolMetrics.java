@@ -0,0 +1,18 @@
+package com.time.tdd.di.container;
+
+/**
+ * @param borrowed instances currently borrowed
+ * @param idle     instances waiting in the pool
+ * @param waiting  estimated threads waiting to borrow
+ * @param created  instances constructed so far
+ * @param evicted  instances dropped for being idle too long
+ * @param timeouts borrows failed for the pool being exhausted
+ * @author XuJian
+ * @date 2023-03-17 20:40
+ **/
+public record PoolMetrics(int max, int borrowed, int idle, int waiting, long created, long evicted, long timeouts) {
+
+    public double utilization() {
+        return (double) borrowed / max;
+    }
+}
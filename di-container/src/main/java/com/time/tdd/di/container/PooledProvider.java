@@ -1,33 +1,223 @@
 package com.time.tdd.di.container;
 
-import java.util.ArrayList;
+import com.time.tdd.di.container.exceptions.PoolExhaustedException;
+import java.lang.annotation.Annotation;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
+ * idle instances are taken most recently released first and evicted from the other end down to min
+ *
  * @author XuJian
  * @date 2023-03-06 21:21
  **/
 class PooledProvider<T> implements ComponentProvider<T> {
-    static int MAX = 2;
-    private final List<T> pool = new ArrayList<>();
+    /**
+     * the max of {@link Pool}, for pools of other scope annotations
+     */
+    static final int MAX = 8;
+    private static final String SCOPE = "Pool";
     private final ComponentProvider<T> provider;
-    int current;
+    private final int min;
+    private final int max;
+    private final long timeoutNanos;
+    private final long idleNanos;
+
+    private final Semaphore permits;
+    private final ConcurrentLinkedDeque<Idle<T>> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final Map<Borrowed, Boolean> borrowed = new ConcurrentHashMap<>();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private volatile boolean closed;
 
     public PooledProvider(ComponentProvider<T> provider) {
+        this(provider, 0, MAX, 0, 0);
+    }
+
+    PooledProvider(ComponentProvider<T> provider, int min, int max, long timeoutMillis, long idleMillis) {
+        if (max < 1 || min < 0 || min > max) {
+            throw new IllegalArgumentException("pool size min " + min + ", max " + max);
+        }
         this.provider = provider;
+        this.min = min;
+        this.max = max;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+        this.permits = new Semaphore(max, true);
     }
 
     @Override
     public T get(Context context) {
-        if (pool.size() < MAX) {
-            pool.add(provider.get(context));
+        if (!acquire()) {
+            timeouts.increment();
+            throw new PoolExhaustedException(metrics());
+        }
+        try {
+            T instance = borrow(context);
+            borrowed.put(new Borrowed(instance), Boolean.TRUE);
+            return instance;
+        } catch (RuntimeException | Error e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private boolean acquire() {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        if (timeoutNanos == 0) {
+            return false;
+        }
+        try {
+            return permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private T borrow(Context context) {
+        Idle<T> candidate;
+        while ((candidate = idle.pollFirst()) != null) {
+            idleCount.decrementAndGet();
+            if (!isExpired(candidate, System.nanoTime())) {
+                ComponentEvents.scope(context, SCOPE, true);
+                return candidate.instance();
+            }
+            evicted.increment();
+            provider.destroy(candidate.instance());
+        }
+        ComponentEvents.scope(context, SCOPE, false);
+        T instance = provider.get(context);
+        created.increment();
+        return instance;
+    }
+
+    /**
+     * constructs idle instances until min are borrowed or idle, so contexts sharing the pool fill it once
+     */
+    synchronized void prefill(Context context) {
+        while (idleCount.get() + borrowed.size() < min && !closed) {
+            T instance = provider.get(context);
+            created.increment();
+            idle.offerLast(new Idle<>(instance, System.nanoTime()));
+            idleCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * an idle instance may still turn out expired and be constructed again
+     */
+    @Override
+    public boolean isConstructed() {
+        return idleCount.get() > 0;
+    }
+
+    void release(T instance) {
+        if (closed) {
+            return;
+        }
+        if (borrowed.remove(new Borrowed(instance)) == null) {
+            throw new IllegalArgumentException("instance not borrowed from this pool");
+        }
+        long now = System.nanoTime();
+        idle.offerFirst(new Idle<>(instance, now));
+        idleCount.incrementAndGet();
+        permits.release();
+        evict(now);
+    }
+
+    private void evict(long now) {
+        if (idleNanos == 0) {
+            return;
         }
-        return pool.get(current++ % MAX);
+        Idle<T> oldest;
+        while (idleCount.get() > min && (oldest = idle.peekLast()) != null && isExpired(oldest, now)) {
+            if (idle.removeLastOccurrence(oldest)) {
+                idleCount.decrementAndGet();
+                evicted.increment();
+                provider.destroy(oldest.instance());
+            }
+        }
+    }
+
+    private boolean isExpired(Idle<T> candidate, long now) {
+        return idleNanos != 0 && now - candidate.since() > idleNanos;
+    }
+
+    PoolMetrics metrics() {
+        return new PoolMetrics(max, borrowed.size(), idleCount.get(), permits.getQueueLength(), created.sum(), evicted.sum(),
+            timeouts.sum());
     }
 
     @Override
     public List<ComponentRef<?>> getDependencies() {
         return provider.getDependencies();
     }
-}
 
+    @Override
+    public void destroy(T instance) {
+        provider.destroy(instance);
+    }
+
+    /**
+     * borrowed instances are destroyed too and not taken back afterwards
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void close() {
+        closed = true;
+        Idle<T> candidate;
+        while ((candidate = idle.pollFirst()) != null) {
+            idleCount.decrementAndGet();
+            provider.destroy(candidate.instance());
+        }
+        for (Borrowed instance : borrowed.keySet()) {
+            if (borrowed.remove(instance) != null) {
+                provider.destroy((T) instance.instance());
+            }
+        }
+    }
+
+    private record Idle<T>(T instance, long since) {
+    }
+
+    /**
+     * borrowed instances are tracked by identity, components may override equals
+     */
+    private record Borrowed(Object instance) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Borrowed other && other.instance == instance;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(instance);
+        }
+    }
+
+    static class PoolScope implements ScopeProvider {
+        @Override
+        public ComponentProvider<?> create(ComponentProvider<?> provider) {
+            return new PooledProvider<>(provider);
+        }
+
+        @Override
+        public ComponentProvider<?> create(Annotation scope, ComponentProvider<?> provider) {
+            if (scope instanceof Pool pool) {
+                return new PooledProvider<>(provider, pool.min(), pool.max(), pool.timeoutMillis(), pool.idleMillis());
+            }
+            return create(provider);
+        }
+    }
+}
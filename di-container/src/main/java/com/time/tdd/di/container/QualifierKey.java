@@ -0,0 +1,85 @@
+package com.time.tdd.di.container;
+
+import java.lang.annotation.Annotation;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * interned weakly, so equal qualifiers compare by identity
+ *
+ * @author XuJian
+ * @date 2023-03-25 20:10
+ **/
+final class QualifierKey {
+    private static final Map<QualifierKey, WeakReference<QualifierKey>> interned = new WeakHashMap<>();
+
+    private static final ClassValue<Method[]> members = new ClassValue<>() {
+        @Override
+        protected Method[] computeValue(Class<?> type) {
+            Method[] members = type.getDeclaredMethods();
+            Arrays.sort(members, Comparator.comparing(Method::getName));
+            for (Method member : members) {
+                member.trySetAccessible();
+            }
+            return members;
+        }
+    };
+
+    private final Class<? extends Annotation> type;
+    private final Object[] values;
+    private final int hash;
+
+    private QualifierKey(Class<? extends Annotation> type, Object[] values) {
+        this.type = type;
+        this.values = values;
+        this.hash = 31 * type.hashCode() + Arrays.deepHashCode(values);
+    }
+
+    static QualifierKey of(Annotation qualifier) {
+        Class<? extends Annotation> type = qualifier.annotationType();
+        Method[] declared = members.get(type);
+        Object[] values = new Object[declared.length];
+        for (int i = 0; i < declared.length; i++) {
+            values[i] = valueOf(declared[i], qualifier);
+        }
+        return intern(new QualifierKey(type, values));
+    }
+
+    private static QualifierKey intern(QualifierKey key) {
+        synchronized (interned) {
+            WeakReference<QualifierKey> reference = interned.get(key);
+            QualifierKey existing = reference == null ? null : reference.get();
+            if (existing != null) {
+                return existing;
+            }
+            interned.put(key, new WeakReference<>(key));
+            return key;
+        }
+    }
+
+    private static Object valueOf(Method member, Annotation qualifier) {
+        try {
+            return member.invoke(qualifier);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("qualifier member not readable " + member, e);
+        } catch (InvocationTargetException e) {
+            throw new IllegalArgumentException("qualifier member failed " + member, e.getCause());
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof QualifierKey other && hash == other.hash && type == other.type
+            && Arrays.deepEquals(values, other.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
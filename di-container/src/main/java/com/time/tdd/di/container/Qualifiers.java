@@ -0,0 +1,68 @@
+package com.time.tdd.di.container;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * the instances are equal to the qualifiers the jdk reads from annotated elements
+ *
+ * @author XuJian
+ * @date 2023-03-13 21:05
+ **/
+public final class Qualifiers {
+
+    private Qualifiers() {
+    }
+
+    public static <A extends Annotation> A of(Class<A> type, Map<String, Object> members) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) ->
+            switch (method.getName()) {
+                case "annotationType" -> type;
+                case "equals" -> isEqual(type, members, args[0]);
+                case "hashCode" -> hashCode(type, members);
+                case "toString" -> "@" + type.getName() + members;
+                default -> copy(valueOf(method, members));
+            }));
+    }
+
+    private static Object valueOf(Method member, Map<String, Object> members) {
+        return members.containsKey(member.getName()) ? members.get(member.getName()) : member.getDefaultValue();
+    }
+
+    private static boolean isEqual(Class<? extends Annotation> type, Map<String, Object> members, Object other) throws Exception {
+        if (!type.isInstance(other)) {
+            return false;
+        }
+        for (Method member : type.getDeclaredMethods()) {
+            if (!Arrays.deepEquals(new Object[] {valueOf(member, members)}, new Object[] {member.invoke(other)})) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hashCode(Class<? extends Annotation> type, Map<String, Object> members) {
+        return Arrays.stream(type.getDeclaredMethods())
+            .collect(Collectors.summingInt(m -> (127 * m.getName().hashCode()) ^ memberHashCode(valueOf(m, members))));
+    }
+
+    private static int memberHashCode(Object value) {
+        // deepHashCode of a single element array is 31 + the hash code of the element, arrays hashed by content
+        return Arrays.deepHashCode(new Object[] {value}) - 31;
+    }
+
+    private static Object copy(Object value) {
+        if (value != null && value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            Object copy = Array.newInstance(value.getClass().getComponentType(), length);
+            System.arraycopy(value, 0, copy, 0, length);
+            return copy;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,183 @@
+package com.time.tdd.di.container;
+
+import java.util.Deque;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * bound to the current thread only while {@link #call(Callable)} or {@link #run(Runnable)} runs
+ *
+ * @author XuJian
+ * @date 2023-03-19 10:25
+ **/
+public final class RequestScope {
+    private static final String SCOPE = "Request";
+    private static final ThreadLocal<RequestScope> CURRENT = new ThreadLocal<>();
+
+    private final Map<ComponentProvider<?>, Object> instances = new ConcurrentHashMap<>();
+    private final Deque<ComponentProvider<?>> constructed = new ConcurrentLinkedDeque<>();
+
+    private RequestScope() {
+    }
+
+    /**
+     * if the request fails, the failures destroying its instances are suppressed by its own
+     */
+    public static <T> T call(Callable<T> request) throws Exception {
+        RequestScope scope = new RequestScope();
+        T result;
+        try {
+            result = scope.enter(request);
+        } catch (Throwable e) {
+            scope.destroy(e);
+            throw e;
+        }
+        scope.destroy(null);
+        return result;
+    }
+
+    /**
+     * as {@link #call(Callable)}
+     */
+    public static void run(Runnable request) {
+        RequestScope scope = new RequestScope();
+        try {
+            scope.enter(request);
+        } catch (Throwable e) {
+            scope.destroy(e);
+            throw e;
+        }
+        scope.destroy(null);
+    }
+
+    public static Optional<RequestScope> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    /**
+     * the task runs in the request current when this is called, wherever it is run
+     */
+    public static Runnable propagate(Runnable task) {
+        RequestScope scope = current().orElseThrow(() -> new IllegalStateException("no request in scope"));
+        return () -> scope.enter(task);
+    }
+
+    private <T> T enter(Callable<T> request) throws Exception {
+        RequestScope previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return request.call();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    private void enter(Runnable request) {
+        RequestScope previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            request.run();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * the last constructed first, a failing callback does not keep the others from running
+     */
+    @SuppressWarnings("unchecked")
+    private void destroy(Throwable request) {
+        RuntimeException failure = null;
+        ComponentProvider<Object> provider;
+        while ((provider = (ComponentProvider<Object>) constructed.poll()) != null) {
+            try {
+                provider.destroy(instances.remove(provider));
+            } catch (RuntimeException e) {
+                if (request != null) {
+                    request.addSuppressed(e);
+                } else if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static void restore(RequestScope previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    boolean contains(ComponentProvider<?> provider) {
+        Object instance = instances.get(provider);
+        return instance != null && !(instance instanceof Construction);
+    }
+
+    /**
+     * not computeIfAbsent, constructing the instance may need other request scoped instances
+     */
+    @SuppressWarnings("unchecked")
+    <T> T get(ComponentProvider<T> provider, Context context) {
+        Object instance = instances.get(provider);
+        if (instance == null) {
+            Construction construction = new Construction();
+            instance = instances.putIfAbsent(provider, construction);
+            if (instance == null) {
+                ComponentEvents.scope(context, SCOPE, false);
+                return construct(provider, context, construction);
+            }
+        }
+        ComponentEvents.scope(context, SCOPE, true);
+        return instance instanceof Construction construction ? (T) construction.await() : (T) instance;
+    }
+
+    private <T> T construct(ComponentProvider<T> provider, Context context, Construction construction) {
+        try {
+            T instance = provider.get(context);
+            instances.put(provider, instance);
+            constructed.push(provider);
+            construction.complete(instance);
+            return instance;
+        } catch (RuntimeException | Error e) {
+            instances.remove(provider, construction);
+            construction.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static final class Construction extends CompletableFuture<Object> {
+        final Thread owner = Thread.currentThread();
+
+        /**
+         * a failed construction fails the waiting gets with the same exception
+         */
+        Object await() {
+            if (owner == Thread.currentThread() && !isDone()) {
+                throw new IllegalStateException("request scoped component requested while being constructed by the same thread");
+            }
+            try {
+                return join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (e.getCause() instanceof Error cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+    }
+}
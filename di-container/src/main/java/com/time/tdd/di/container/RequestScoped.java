@@ -0,0 +1,18 @@
+package com.time.tdd.di.container;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import jakarta.inject.Scope;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * injected into other scopes only through {@link jakarta.inject.Provider} or {@link Lazy}
+ *
+ * @author XuJian
+ * @date 2023-03-19 10:20
+ **/
+@Scope
+@Documented
+@Retention(RUNTIME)
+public @interface RequestScoped {
+}
@@ -0,0 +1,36 @@
+package com.time.tdd.di.container;
+
+import java.util.List;
+
+/**
+ * @author XuJian
+ * @date 2023-03-19 10:40
+ **/
+class RequestScopedProvider<T> implements ComponentProvider<T> {
+    private final ComponentProvider<T> provider;
+
+    public RequestScopedProvider(ComponentProvider<T> provider) {
+        this.provider = provider;
+    }
+
+    @Override
+    public T get(Context context) {
+        return RequestScope.current().orElseThrow(() -> new IllegalStateException("no request in scope"))
+            .get(provider, context);
+    }
+
+    @Override
+    public boolean isConstructed() {
+        return RequestScope.current().map(scope -> scope.contains(provider)).orElse(false);
+    }
+
+    @Override
+    public List<ComponentRef<?>> getDependencies() {
+        return provider.getDependencies();
+    }
+
+    @Override
+    public void destroy(T instance) {
+        provider.destroy(instance);
+    }
+}
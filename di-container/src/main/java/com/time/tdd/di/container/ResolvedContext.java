@@ -0,0 +1,316 @@
+package com.time.tdd.di.container;
+
+import com.time.tdd.di.container.exceptions.ContextCloseException;
+import com.time.tdd.di.container.exceptions.DependencyNotFoundException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import jakarta.inject.Provider;
+
+/**
+ * @author XuJian
+ * @date 2023-03-15 21:30
+ **/
+class ResolvedContext implements Context {
+    private final Map<Component, Integer> ids = new HashMap<>();
+    private final Binding<?>[] bindings;
+    private final Map<Component, Multibinding> multibindings = new ConcurrentHashMap<>();
+    private final ResolvedContext parent;
+    private final Duration closeTimeout;
+    private final boolean statistics;
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private volatile Executor executor = ForkJoinPool.commonPool();
+
+    ResolvedContext(Map<Component, ComponentProvider<?>> components, ResolvedContext parent, boolean statistics,
+                    Duration closeTimeout) {
+        this.parent = parent;
+        this.closeTimeout = closeTimeout;
+        this.statistics = statistics;
+        bindings = new Binding<?>[components.size()];
+        for (Map.Entry<Component, ComponentProvider<?>> entry : components.entrySet()) {
+            int id = ids.size();
+            ids.put(entry.getKey(), id);
+            bindings[id] = new Binding<>(id, entry.getKey(), entry.getValue(), this, statistics ? new StatisticsRecorder() : null);
+        }
+        index();
+        for (Binding<?> binding : bindings) {
+            binding.link(this);
+        }
+        for (List<Binding<?>> layer : layers()) {
+            layer.forEach(Binding::checkScope);
+        }
+        prefill();
+    }
+
+    /**
+     * bindings sharing a pool fill it once
+     */
+    private void prefill() {
+        Set<ComponentProvider<?>> pools = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Binding<?> binding : bindings) {
+            if (binding.provider() instanceof PooledProvider<?> pool && pools.add(pool)) {
+                pool.prefill(binding);
+            }
+        }
+    }
+
+    /**
+     * the types only bound in the parent are left to it
+     */
+    private void index() {
+        Map<Component, List<Binding<?>>> types = new LinkedHashMap<>();
+        for (Binding<?> binding : bindings) {
+            types.computeIfAbsent(binding.component().unqualified(), type -> new ArrayList<>()).add(binding);
+        }
+        types.forEach((type, bound) -> {
+            Stream<Binding<?>> inherited = parent == null ? Stream.empty()
+                : parent.multibinding(type).bindings().filter(binding -> !ids.containsKey(binding.component()));
+            multibindings.put(type, Multibinding.of(Stream.concat(inherited, bound.stream())));
+        });
+    }
+
+    /**
+     * every layer only depends on the ones before it, so the singletons of a layer are constructed in parallel
+     */
+    void initialize(Executor executor) {
+        this.executor = executor;
+        for (List<Binding<?>> layer : layers()) {
+            try {
+                CompletableFuture.allOf(layer.stream().filter(Binding::isSingleton)
+                    .map(binding -> CompletableFuture.runAsync(binding::get, executor)).toArray(CompletableFuture[]::new)).join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (e.getCause() instanceof Error cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * bindings of the parent are already there
+     */
+    List<List<Binding<?>>> layers() {
+        int[] pending = new int[bindings.length];
+        List<List<Binding<?>>> dependents = new ArrayList<>(bindings.length);
+        for (int i = 0; i < bindings.length; i++) {
+            dependents.add(new ArrayList<>());
+        }
+        for (Binding<?> binding : bindings) {
+            binding.required().filter(this::owns).forEach(dependency -> {
+                pending[binding.id()]++;
+                dependents.get(dependency.id()).add(binding);
+            });
+        }
+        List<List<Binding<?>>> layers = new ArrayList<>();
+        List<Binding<?>> layer = Arrays.stream(bindings).filter(binding -> pending[binding.id()] == 0).toList();
+        while (!layer.isEmpty()) {
+            layers.add(layer);
+            List<Binding<?>> next = new ArrayList<>();
+            for (Binding<?> binding : layer) {
+                for (Binding<?> dependent : dependents.get(binding.id())) {
+                    if (--pending[dependent.id()] == 0) {
+                        next.add(dependent);
+                    }
+                }
+            }
+            layer = next;
+        }
+        return layers;
+    }
+
+    private boolean owns(Binding<?> binding) {
+        return binding.id() < bindings.length && bindings[binding.id()] == binding;
+    }
+
+    /**
+     * bindings of this context first, then the ones of the parent
+     */
+    Binding<?> binding(Component component) {
+        Integer id = ids.get(component);
+        if (id != null) {
+            return bindings[id];
+        }
+        return parent == null ? null : parent.binding(component);
+    }
+
+    Multibinding multibinding(Component component) {
+        Multibinding all = multibindings.get(component.unqualified());
+        if (all == null) {
+            return parent == null ? Multibinding.EMPTY : parent.multibinding(component);
+        }
+        if (component.qualifier() == null) {
+            return all;
+        }
+        return multibindings.computeIfAbsent(component, all::qualified);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <ComponentType> Optional<ComponentType> get(ComponentRef<ComponentType> ref) {
+        if (ref.isCollection()) {
+            return Optional.of((ComponentType) multibinding(ref.component()).get(ref.getContainer()));
+        }
+        if (ref.getContainer() == Lazy.class) {
+            return (Optional<ComponentType>) Optional.ofNullable(binding(ref.component())).map(Binding::asLazy);
+        }
+        if (ref.isContainer()) {
+            if (ref.getContainer() != Provider.class) {
+                return Optional.empty();
+            }
+            return (Optional<ComponentType>) Optional.ofNullable(binding(ref.component())).map(Binding::asProvider);
+        }
+        return Optional.ofNullable(binding(ref.component())).map(binding -> (ComponentType) binding.get());
+    }
+
+    /**
+     * the construction runs in the request current when this is called
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <ComponentType> CompletableFuture<ComponentType> getAsync(ComponentRef<ComponentType> ref) {
+        Executor executor = RequestScope.current().isEmpty() ? this.executor
+            : task -> this.executor.execute(RequestScope.propagate(task));
+        Binding<?> binding = binding(ref.component());
+        if (binding == null && !ref.isCollection()) {
+            return CompletableFuture.failedFuture(new DependencyNotFoundException(ref.component()));
+        }
+        if (ref.isContainer()) {
+            return CompletableFuture.supplyAsync(() -> get(ref).orElseThrow(() -> new DependencyNotFoundException(ref.component())),
+                executor);
+        }
+        return (CompletableFuture<ComponentType>) binding.getAsync(executor);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <ComponentType> ComponentHandle<ComponentType> handle(ComponentRef<ComponentType> ref) {
+        Binding<?> binding = binding(ref.component());
+        if (binding == null || ref.isContainer() && ref.getContainer() != Provider.class) {
+            throw new DependencyNotFoundException(ref.component());
+        }
+        return (ComponentHandle<ComponentType>) (ref.isContainer() ? binding.providerHandle() : binding);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <ComponentType> void release(ComponentRef<ComponentType> ref, ComponentType instance) {
+        provider(ref).ifPresent(provider -> {
+            if (provider instanceof PooledProvider<?> pool) {
+                ((PooledProvider<ComponentType>) pool).release(instance);
+            }
+        });
+    }
+
+    @Override
+    public Optional<PoolMetrics> poolMetrics(ComponentRef<?> ref) {
+        return provider(ref).map(provider -> provider instanceof PooledProvider<?> pool ? pool.metrics() : null);
+    }
+
+    @Override
+    public Optional<CacheMetrics> cacheMetrics(ComponentRef<?> ref) {
+        return provider(ref).map(provider -> provider instanceof CachedProvider<?> cache ? cache.metrics() : null);
+    }
+
+    @Override
+    public Map<Component, ComponentStatistics> statistics() {
+        Map<Component, ComponentStatistics> statistics = new HashMap<>();
+        for (Binding<?> binding : bindings) {
+            if (binding.recorder() != null) {
+                statistics.put(binding.component(), binding.recorder().snapshot());
+            }
+        }
+        return statistics;
+    }
+
+    @Override
+    public Optional<StartupProfile> profile() {
+        if (!statistics) {
+            return Optional.empty();
+        }
+        return Optional.of(new StartupProfile(layers().stream().flatMap(List::stream)
+            .map(binding -> new StartupProfile.Node(binding.component(), binding.recorder().snapshot().constructionNanos(),
+                binding.required().filter(this::owns).map(Binding::component).distinct().toList())).toList()));
+    }
+
+    /**
+     * last layer first, every component before its dependencies; scopes not closed within the timeout are reported
+     */
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        long deadline = System.nanoTime() + closeTimeout.toNanos();
+        Set<ComponentProvider<?>> providers = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Component> undestroyed = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        List<List<Binding<?>>> layers = layers();
+        for (int i = layers.size() - 1; i >= 0; i--) {
+            List<Binding<?>> layer = layers.get(i).stream().filter(binding -> providers.add(binding.provider())).toList();
+            List<CompletableFuture<Void>> closing = layer.stream()
+                .map(binding -> CompletableFuture.runAsync(binding.provider()::close, executor)).toList();
+            boolean done = await(CompletableFuture.allOf(closing.toArray(CompletableFuture[]::new)), deadline);
+            for (int j = 0; j < closing.size(); j++) {
+                if (!closing.get(j).isDone()) {
+                    undestroyed.add(layer.get(j).component());
+                    continue;
+                }
+                try {
+                    closing.get(j).join();
+                } catch (CompletionException e) {
+                    undestroyed.add(layer.get(j).component());
+                    failures.add(e.getCause());
+                }
+            }
+            if (!done) {
+                layers.subList(0, i).forEach(earlier -> earlier.forEach(binding -> undestroyed.add(binding.component())));
+                break;
+            }
+        }
+        if (!undestroyed.isEmpty()) {
+            ContextCloseException exception = new ContextCloseException(undestroyed);
+            failures.forEach(exception::addSuppressed);
+            throw exception;
+        }
+    }
+
+    private static boolean await(CompletableFuture<?> closing, long deadline) {
+        try {
+            closing.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (ExecutionException e) {
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private Optional<ComponentProvider<?>> provider(ComponentRef<?> ref) {
+        return Optional.ofNullable(binding(ref.component())).map(Binding::provider);
+    }
+}
@@ -1,10 +1,18 @@
 package com.time.tdd.di.container;
 
+import java.lang.annotation.Annotation;
+
 /**
  * @author XuJian
  * @date 2023-03-06 21:26
  **/
 interface ScopeProvider {
     ComponentProvider<?> create(ComponentProvider<?> provider);
-}
 
+    /**
+     * the scope annotation of the binding is given for scopes configured through annotation members
+     */
+    default ComponentProvider<?> create(Annotation scope, ComponentProvider<?> provider) {
+        return create(provider);
+    }
+}
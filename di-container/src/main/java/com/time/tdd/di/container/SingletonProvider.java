@@ -1,30 +1,138 @@
 package com.time.tdd.di.container;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 
 /**
+ * the slot is null, a {@link Construction}, the singleton, or {@link #CLOSED}
+ *
  * @author XuJian
  * @date 2023-03-06 21:21
  **/
 class SingletonProvider<T> implements ComponentProvider<T> {
+    private static final String SCOPE = "Singleton";
+    private static final VarHandle INSTANCE;
+    private static final Object CLOSED = new Object();
+
+    static {
+        try {
+            INSTANCE = MethodHandles.lookup().findVarHandle(SingletonProvider.class, "instance", Object.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     private final ComponentProvider<T> provider;
-    private T singleton;
+    private Object instance;
 
     public SingletonProvider(ComponentProvider<T> provider) {
         this.provider = provider;
     }
 
+    /**
+     * @throws IllegalStateException if the context is closed, a singleton constructed then would never be destroyed
+     */
     @Override
+    @SuppressWarnings("unchecked")
     public T get(Context context) {
-        if (singleton == null) {
-            singleton = provider.get(context);
+        Object current = INSTANCE.getAcquire(this);
+        if (current != null && current != CLOSED && !(current instanceof Construction)) {
+            ComponentEvents.scope(context, SCOPE, true);
+            return (T) current;
+        }
+        return construct(context, current);
+    }
+
+    @Override
+    public boolean isConstructed() {
+        Object current = INSTANCE.getAcquire(this);
+        return current != null && current != CLOSED && !(current instanceof Construction);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T construct(Context context, Object current) {
+        while (true) {
+            if (current == CLOSED) {
+                throw new IllegalStateException("singleton requested after its context was closed");
+            } else if (current == null) {
+                Construction construction = new Construction();
+                if (INSTANCE.compareAndSet(this, null, construction)) {
+                    return construct(context, construction);
+                }
+            } else if (current instanceof Construction construction) {
+                if (construction.owner == Thread.currentThread()) {
+                    throw new IllegalStateException("singleton requested while being constructed by the same thread");
+                }
+                construction.await();
+            } else {
+                ComponentEvents.scope(context, SCOPE, true);
+                return (T) current;
+            }
+            current = INSTANCE.getAcquire(this);
+        }
+    }
+
+    private T construct(Context context, Construction construction) {
+        ComponentEvents.scope(context, SCOPE, false);
+        try {
+            T singleton;
+            try {
+                singleton = provider.get(context);
+            } catch (RuntimeException | Error e) {
+                INSTANCE.compareAndSet(this, construction, null);
+                throw e;
+            }
+            if (!INSTANCE.compareAndSet(this, construction, singleton)) {
+                provider.destroy(singleton);
+                throw new IllegalStateException("context closed while the singleton was constructed");
+            }
+            return singleton;
+        } finally {
+            construction.done.countDown();
         }
-        return singleton;
     }
 
     @Override
     public List<ComponentRef<?>> getDependencies() {
         return provider.getDependencies();
     }
-}
 
+    @Override
+    public void destroy(T instance) {
+        provider.destroy(instance);
+    }
+
+    /**
+     * a singleton still being constructed is destroyed by the thread constructing it, which then fails
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void close() {
+        Object current = INSTANCE.getAndSet(this, CLOSED);
+        if (current != null && current != CLOSED && !(current instanceof Construction)) {
+            provider.destroy((T) current);
+        }
+    }
+
+    private static class Construction {
+        final Thread owner = Thread.currentThread();
+        final CountDownLatch done = new CountDownLatch(1);
+
+        void await() {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    done.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.time.tdd.di.container;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * @author XuJian
+ * @date 2023-03-26 16:00
+ **/
+public final class StartupProfile {
+    private final List<Node> nodes;
+    private final Map<Component, Integer> ids = new HashMap<>();
+    private final int[][] dependencies;
+    private final String[] names;
+    private final List<Component> criticalPath;
+    private final boolean[] critical;
+    private final long criticalPathNanos;
+    private final List<Saving> savings;
+
+    /**
+     * @param nodes in topological order, every node after its dependencies
+     */
+    StartupProfile(List<Node> nodes) {
+        this.nodes = List.copyOf(nodes);
+        for (Node node : nodes) {
+            ids.put(node.component(), ids.size());
+        }
+        dependencies = new int[nodes.size()][];
+        names = new String[nodes.size()];
+        for (int i = 0; i < dependencies.length; i++) {
+            dependencies[i] = nodes.get(i).dependencies().stream().filter(ids::containsKey).mapToInt(ids::get).toArray();
+            names[i] = name(nodes.get(i).component());
+        }
+        long[] nanos = nodes.stream().mapToLong(Node::nanos).toArray();
+        int[] previous = new int[nanos.length];
+        long[] finish = longestPaths(nanos, previous);
+        int last = -1;
+        for (int i = 0; i < finish.length; i++) {
+            if (last < 0 || isLonger(finish, i, last)) {
+                last = i;
+            }
+        }
+        List<Component> path = new ArrayList<>();
+        critical = new boolean[nanos.length];
+        for (int i = last; i >= 0; i = previous[i]) {
+            path.add(nodes.get(i).component());
+            critical[i] = true;
+        }
+        Collections.reverse(path);
+        criticalPath = List.copyOf(path);
+        criticalPathNanos = last < 0 ? 0 : finish[last];
+        savings = savings(nanos);
+    }
+
+    /**
+     * finish[i] is the length of the longest path ending at node i, previous[i] the dependency it comes through
+     */
+    private long[] longestPaths(long[] nanos, int[] previous) {
+        long[] finish = new long[nanos.length];
+        for (int i = 0; i < nanos.length; i++) {
+            previous[i] = -1;
+            for (int dependency : dependencies[i]) {
+                if (previous[i] < 0 || isLonger(finish, dependency, previous[i])) {
+                    previous[i] = dependency;
+                }
+            }
+            finish[i] = nanos[i] + (previous[i] < 0 ? 0 : finish[previous[i]]);
+        }
+        return finish;
+    }
+
+    /**
+     * ties are broken by name, whatever the order of the nodes
+     */
+    private boolean isLonger(long[] finish, int path, int than) {
+        if (finish[path] != finish[than]) {
+            return finish[path] > finish[than];
+        }
+        int byName = names[path].compareTo(names[than]);
+        return byName != 0 ? byName < 0 : path < than;
+    }
+
+    private List<Saving> savings(long[] nanos) {
+        List<Saving> savings = new ArrayList<>();
+        int[] previous = new int[nanos.length];
+        long[] without = nanos.clone();
+        for (Component component : criticalPath) {
+            int id = ids.get(component);
+            without[id] = 0;
+            long shortened = criticalPathNanos - Arrays.stream(longestPaths(without, previous)).max().orElse(0);
+            without[id] = nanos[id];
+            if (shortened > 0) {
+                savings.add(new Saving(component, shortened));
+            }
+        }
+        savings.sort(Comparator.comparingLong(Saving::nanos).reversed());
+        return List.copyOf(savings);
+    }
+
+    public List<Node> nodes() {
+        return nodes;
+    }
+
+    /**
+     * from the first component constructed to the last
+     */
+    public List<Component> criticalPath() {
+        return criticalPath;
+    }
+
+    public long criticalPathNanos() {
+        return criticalPathNanos;
+    }
+
+    public long totalNanos() {
+        return nodes.stream().mapToLong(Node::nanos).sum();
+    }
+
+    /**
+     * how much shorter the critical path gets without the component, the largest saving first
+     */
+    public List<Saving> savings() {
+        return savings;
+    }
+
+    /**
+     * the critical path in red
+     */
+    public String toDot() {
+        StringBuilder dot = new StringBuilder("digraph components {\n    node [shape=box];\n");
+        for (int i = 0; i < nodes.size(); i++) {
+            Node node = nodes.get(i);
+            dot.append("    n").append(i).append(" [label=\"").append(escape(name(node.component())))
+                .append("\\n").append(String.format(Locale.ROOT, "%.3f ms", node.nanos() / 1e6)).append('"')
+                .append(isCritical(i) ? ", color=red" : "").append("];\n");
+        }
+        for (int i = 0; i < nodes.size(); i++) {
+            for (int dependency : dependencies[i]) {
+                dot.append("    n").append(i).append(" -> n").append(dependency)
+                    .append(isCritical(i) && isCritical(dependency) ? " [color=red]" : "").append(";\n");
+            }
+        }
+        return dot.append("}\n").toString();
+    }
+
+    public String toJson() {
+        StringBuilder json = new StringBuilder("{\"totalNanos\":").append(totalNanos())
+            .append(",\"criticalPathNanos\":").append(criticalPathNanos).append(",\"components\":[");
+        for (int i = 0; i < nodes.size(); i++) {
+            Node node = nodes.get(i);
+            json.append(i == 0 ? "" : ",").append("{\"id\":").append(i)
+                .append(",\"type\":\"").append(escape(node.component().genericType().getTypeName())).append('"')
+                .append(",\"qualifier\":").append(node.component().qualifier() == null ? "null"
+                    : '"' + escape(node.component().qualifier().toString()) + '"')
+                .append(",\"nanos\":").append(node.nanos())
+                .append(",\"critical\":").append(isCritical(i))
+                .append(",\"dependencies\":").append(Arrays.toString(dependencies[i]).replace(" ", "")).append('}');
+        }
+        json.append("],\"criticalPath\":").append(criticalPath.stream().map(ids::get).toList().toString().replace(" ", ""))
+            .append(",\"savings\":[");
+        for (int i = 0; i < savings.size(); i++) {
+            json.append(i == 0 ? "" : ",").append("{\"id\":").append(ids.get(savings.get(i).component()))
+                .append(",\"nanos\":").append(savings.get(i).nanos()).append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    private boolean isCritical(int id) {
+        return critical[id];
+    }
+
+    private static String name(Component component) {
+        return component.qualifier() == null ? component.genericType().getTypeName()
+            : component.genericType().getTypeName() + " " + component.qualifier();
+    }
+
+    private static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (char c : text.toCharArray()) {
+            switch (c) {
+                case '"' -> escaped.append("\\\"");
+                case '\\' -> escaped.append("\\\\");
+                case '\n' -> escaped.append("\\n");
+                default -> {
+                    if (c < 0x20) {
+                        escaped.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        escaped.append(c);
+                    }
+                }
+            }
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * @param nanos        time spent constructing the component, not counting its dependencies
+     * @param dependencies the components bound in the same context it depends on
+     */
+    public record Node(Component component, long nanos, List<Component> dependencies) {
+    }
+
+    public record Saving(Component component, long nanos) {
+    }
+}
@@ -0,0 +1,47 @@
+package com.time.tdd.di.container;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * the statistics of one {@link Binding}, only created when the context collects them
+ *
+ * @author XuJian
+ * @date 2023-03-22 20:40
+ **/
+class StatisticsRecorder {
+    private final LongAdder scopeHits = new LongAdder();
+    private final LongAdder scopeMisses = new LongAdder();
+    private final AtomicLongArray resolution = new AtomicLongArray(64);
+    private final AtomicLongArray construction = new AtomicLongArray(64);
+    private final LongAdder constructionNanos = new LongAdder();
+
+    void resolved(long nanos) {
+        resolution.incrementAndGet(LatencyHistogram.bucket(nanos));
+    }
+
+    /**
+     * own is the part of nanos not spent constructing dependencies
+     */
+    void constructed(long nanos, long own) {
+        construction.incrementAndGet(LatencyHistogram.bucket(nanos));
+        constructionNanos.add(own);
+    }
+
+    void scope(boolean hit) {
+        (hit ? scopeHits : scopeMisses).increment();
+    }
+
+    ComponentStatistics snapshot() {
+        return new ComponentStatistics(scopeHits.sum(), scopeMisses.sum(), histogram(resolution), histogram(construction),
+            constructionNanos.sum());
+    }
+
+    private static LatencyHistogram histogram(AtomicLongArray counts) {
+        long[] buckets = new long[counts.length()];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = counts.get(i);
+        }
+        return new LatencyHistogram(buckets);
+    }
+}
@@ -0,0 +1,119 @@
+package com.time.tdd.di.container;
+
+import com.time.tdd.di.container.exceptions.IllegalComponentException;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * interned weakly, so equal types compare by identity; class keys are kept by their class
+ *
+ * @author XuJian
+ * @date 2023-03-26 19:30
+ **/
+final class TypeKey {
+    private static final Map<TypeKey, WeakReference<TypeKey>> interned = new WeakHashMap<>();
+    private static final TypeKey[] NONE = new TypeKey[0];
+    private static final Object ARRAY = "[]";
+    private static final Object EXTENDS = "? extends";
+    private static final Object SUPER = "? super";
+
+    private static final ClassValue<TypeKey> classes = new ClassValue<>() {
+        @Override
+        protected TypeKey computeValue(Class<?> type) {
+            return new TypeKey(type, type, type, NONE);
+        }
+    };
+
+    private final Type type;
+    private final Class<?> raw;
+    private final Object head;
+    private final TypeKey[] arguments;
+    private final int hash;
+
+    /**
+     * @param head      the raw class of a parameterized type, or the marker of an array or wildcard
+     * @param arguments the keys of the type arguments, or of the array component or wildcard bounds
+     */
+    private TypeKey(Type type, Class<?> raw, Object head, TypeKey[] arguments) {
+        this.type = type;
+        this.raw = raw;
+        this.head = head;
+        this.arguments = arguments;
+        this.hash = 31 * head.hashCode() + Arrays.hashCode(arguments);
+    }
+
+    /**
+     * @throws IllegalComponentException if the type has type variables, which no component can be bound to
+     */
+    static TypeKey of(Type type) {
+        if (type instanceof Class<?> plain) {
+            return classes.get(plain);
+        }
+        if (type instanceof ParameterizedType parameterized) {
+            Type[] actual = parameterized.getActualTypeArguments();
+            TypeKey[] arguments = new TypeKey[actual.length + 1];
+            if (parameterized.getOwnerType() instanceof ParameterizedType owner) {
+                arguments[0] = of(owner);
+            }
+            for (int i = 0; i < actual.length; i++) {
+                arguments[i + 1] = of(actual[i]);
+            }
+            Class<?> raw = (Class<?>) parameterized.getRawType();
+            return intern(new TypeKey(type, raw, raw, arguments));
+        }
+        if (type instanceof GenericArrayType array) {
+            TypeKey component = of(array.getGenericComponentType());
+            return intern(new TypeKey(type, component.raw.arrayType(), ARRAY, new TypeKey[] {component}));
+        }
+        if (type instanceof WildcardType wildcard) {
+            boolean lower = wildcard.getLowerBounds().length > 0;
+            TypeKey[] bounds = Arrays.stream(lower ? wildcard.getLowerBounds() : wildcard.getUpperBounds())
+                .map(TypeKey::of).toArray(TypeKey[]::new);
+            return intern(new TypeKey(type, lower ? Object.class : bounds[0].raw, lower ? SUPER : EXTENDS, bounds));
+        }
+        throw new IllegalComponentException();
+    }
+
+    private static TypeKey intern(TypeKey key) {
+        synchronized (interned) {
+            WeakReference<TypeKey> reference = interned.get(key);
+            TypeKey existing = reference == null ? null : reference.get();
+            if (existing != null) {
+                return existing;
+            }
+            interned.put(key, new WeakReference<>(key));
+            return key;
+        }
+    }
+
+    /**
+     * the first of the equal types seen
+     */
+    Type type() {
+        return type;
+    }
+
+    Class<?> raw() {
+        return raw;
+    }
+
+    /**
+     * only compares the parts of keys being interned, the parts are already interned
+     */
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof TypeKey other && hash == other.hash && head == other.head
+            && Arrays.equals(arguments, other.arguments);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
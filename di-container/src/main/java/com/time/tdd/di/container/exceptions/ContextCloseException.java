@@ -0,0 +1,25 @@
+package com.time.tdd.di.container.exceptions;
+
+import com.time.tdd.di.container.Component;
+import java.util.List;
+
+/**
+ * @author XuJian
+ * @date 2023-03-25 16:40
+ **/
+public class ContextCloseException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final List<Component> components;
+
+    /**
+     * @param components the components not destroyed, failed callbacks are added as suppressed
+     */
+    public ContextCloseException(List<Component> components) {
+        this.components = List.copyOf(components);
+    }
+
+    public List<Component> getComponents() {
+        return components;
+    }
+}
@@ -1,25 +1,30 @@
 package com.time.tdd.di.container.exceptions;
 
 import com.time.tdd.di.container.Component;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 /**
  * @author XuJian
  * @date 2023-02-25 21:10
  **/
 public class CyclicDependenciesFoundException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
 
-    private Set<Component> components = new HashSet<>();
+    private final List<Component> cycle;
 
-
-    public CyclicDependenciesFoundException(List<Component> visiting) {
-        components.addAll(visiting);
+    /**
+     * @param cycle the components in dependency order, the last one depending on the first
+     */
+    public CyclicDependenciesFoundException(List<Component> cycle) {
+        this.cycle = List.copyOf(cycle);
     }
 
     public Class<?>[] getComponents() {
-        return components.stream().map(Component::type).toArray(Class<?>[]::new);
+        return cycle.stream().map(Component::type).toArray(Class<?>[]::new);
+    }
+
+    public List<Component> getCycle() {
+        return cycle;
     }
 }
 
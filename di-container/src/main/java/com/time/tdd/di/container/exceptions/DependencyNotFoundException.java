@@ -7,9 +7,18 @@ import com.time.tdd.di.container.Component;
  * @date 2023-02-25 18:54
  **/
 public class DependencyNotFoundException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
     private Component component;
     private Component dependency;
 
+    /**
+     * the dependency is requested from a context directly, not by a component
+     */
+    public DependencyNotFoundException(Component dependency) {
+        this(null, dependency);
+    }
+
     public DependencyNotFoundException(Component component, Component dependency) {
         this.component = component;
         this.dependency = dependency;
@@ -7,5 +7,6 @@ package com.time.tdd.di.container.exceptions;
 
 // TODO: 2023/3/4 refine different type of illegal components
 public class IllegalComponentException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
 }
 
@@ -0,0 +1,21 @@
+package com.time.tdd.di.container.exceptions;
+
+import com.time.tdd.di.container.PoolMetrics;
+
+/**
+ * @author XuJian
+ * @date 2023-03-17 20:45
+ **/
+public class PoolExhaustedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final PoolMetrics metrics;
+
+    public PoolExhaustedException(PoolMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public PoolMetrics getMetrics() {
+        return metrics;
+    }
+}
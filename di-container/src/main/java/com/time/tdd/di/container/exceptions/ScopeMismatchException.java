@@ -0,0 +1,31 @@
+package com.time.tdd.di.container.exceptions;
+
+import com.time.tdd.di.container.Component;
+
+/**
+ * @author XuJian
+ * @date 2023-03-28 20:10
+ **/
+public class ScopeMismatchException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final Component component;
+    private final Component dependency;
+
+    /**
+     * @param dependency the component of the instance that would be held past its scope
+     */
+    public ScopeMismatchException(Component component, Component dependency) {
+        super(component + " holds " + dependency);
+        this.component = component;
+        this.dependency = dependency;
+    }
+
+    public Component getComponent() {
+        return component;
+    }
+
+    public Component getDependency() {
+        return dependency;
+    }
+}
@@ -1,20 +1,54 @@
 package com.time.tdd.di.container;
 
 import com.time.tdd.di.container.InjectionTest.ConstructorInjection.Injection.InjectConstructor;
+import com.time.tdd.di.container.exceptions.ContextCloseException;
 import com.time.tdd.di.container.exceptions.CyclicDependenciesFoundException;
 import com.time.tdd.di.container.exceptions.DependencyNotFoundException;
 import com.time.tdd.di.container.exceptions.IllegalComponentException;
+import com.time.tdd.di.container.exceptions.PoolExhaustedException;
+import com.time.tdd.di.container.exceptions.ScopeMismatchException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Type;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.inject.Inject;
 import jakarta.inject.Provider;
 import jakarta.inject.Singleton;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Named;
 import org.junit.jupiter.api.Nested;
@@ -26,7 +60,9 @@ import org.mockito.internal.util.collections.Sets;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -96,12 +132,21 @@ public class ContextTest {
             assertSame(instance, provider.get());
         }
 
+        @Test
+        void should_retrieve_bind_type_as_lazy() {
+            config.bind(TestComponent.class, instance);
+            Context context = config.getContext();
+            Lazy<TestComponent> lazy = context.get(new ComponentRef<Lazy<TestComponent>>() {
+            }).get();
+            assertSame(instance, lazy.get());
+        }
+
         @Test
         void should_not_retrieve_bind_type_as_unsupported_container() {
             config.bind(TestComponent.class, instance);
             Context context = config.getContext();
 
-            assertFalse(context.get(new ComponentRef<List<TestComponent>>() {
+            assertFalse(context.get(new ComponentRef<Optional<TestComponent>>() {
             }).isPresent());
         }
 
@@ -145,6 +190,142 @@ public class ContextTest {
             }
         }
 
+        @Nested
+        class WithGenericType {
+            ComponentRef<Repository<Student>> students = new ComponentRef<>() {
+            };
+            ComponentRef<Repository<Course>> courses = new ComponentRef<>() {
+            };
+
+            @Test
+            void should_bind_parameterized_types_separately() {
+                Repository<Student> studentRepository = new Repository<>() {
+                };
+                Repository<Course> courseRepository = new Repository<>() {
+                };
+                config.bind(students, studentRepository);
+                config.bind(courses, courseRepository);
+                Context context = config.getContext();
+
+                assertSame(studentRepository, context.get(students).get());
+                assertSame(courseRepository, context.get(courses).get());
+                assertTrue(context.get(ComponentRef.of(Repository.class)).isEmpty());
+            }
+
+            @Test
+            void should_inject_parameterized_dependency_by_type_arguments() {
+                config.bind(students, StudentRepository.class);
+                config.bind(courses, CourseRepository.class);
+                config.bind(Enrollment.class, Enrollment.class);
+
+                Enrollment enrollment = config.getContext().get(ComponentRef.of(Enrollment.class)).get();
+
+                assertTrue(enrollment.students instanceof StudentRepository);
+                assertTrue(enrollment.courses.get() instanceof CourseRepository);
+                assertEquals(1, enrollment.all.size());
+                assertTrue(enrollment.all.get(0) instanceof StudentRepository);
+            }
+
+            @Test
+            void should_key_equal_parameterized_types_the_same() {
+                Component component = new ComponentRef<Repository<Student>>() {
+                }.component();
+
+                assertEquals(students.component(), component);
+                assertEquals(students.component().hashCode(), component.hashCode());
+                assertEquals(Repository.class, component.type());
+                assertFalse(courses.component().equals(component));
+            }
+
+            @Test
+            void should_not_hold_parameterized_types_of_discarded_class_loader() throws Exception {
+                WeakReference<Class<?>> loaded = keyTypeOfDiscardedLoader();
+                for (int i = 0; i < 100 && loaded.get() != null; i++) {
+                    System.gc();
+                    Thread.sleep(10);
+                }
+
+                assertNull(loaded.get());
+            }
+
+            private WeakReference<Class<?>> keyTypeOfDiscardedLoader() throws Exception {
+                String name = Discarded.class.getName();
+                byte[] bytes;
+                try (InputStream in = Discarded.class.getResourceAsStream("/" + name.replace('.', '/') + ".class")) {
+                    bytes = in.readAllBytes();
+                }
+                ClassLoader loader = new ClassLoader(Discarded.class.getClassLoader()) {
+                    @Override
+                    protected Class<?> loadClass(String className, boolean resolve) throws ClassNotFoundException {
+                        if (!className.equals(name)) {
+                            return super.loadClass(className, resolve);
+                        }
+                        synchronized (getClassLoadingLock(className)) {
+                            Class<?> loaded = findLoadedClass(className);
+                            return loaded != null ? loaded : defineClass(className, bytes, 0, bytes.length);
+                        }
+                    }
+                };
+                Class<?> type = loader.loadClass(name);
+                Type repository = type.getDeclaredField("repository").getGenericType();
+
+                assertEquals(new Component(repository, null), new Component(repository, null));
+                return new WeakReference<>(type);
+            }
+
+            @Test
+            void should_throw_exception_if_parameterized_dependency_not_found() {
+                config.bind(students, StudentRepository.class);
+                config.bind(Enrollment.class, Enrollment.class);
+
+                DependencyNotFoundException exception = assertThrows(DependencyNotFoundException.class, () -> config.getContext());
+
+                assertEquals(courses.component(), exception.getDependency());
+            }
+
+            @Test
+            void should_throw_exception_if_dependency_type_is_type_variable() {
+                assertThrows(IllegalComponentException.class, () -> config.bind(Holder.class, Holder.class));
+            }
+
+            interface Repository<T> {
+            }
+
+            static class Student {
+            }
+
+            static class Course {
+            }
+
+            static class StudentRepository implements Repository<Student> {
+            }
+
+            static class CourseRepository implements Repository<Course> {
+            }
+
+            static class Enrollment {
+                final Repository<Student> students;
+                final Provider<Repository<Course>> courses;
+                final List<Repository<Student>> all;
+
+                @Inject
+                public Enrollment(Repository<Student> students, Provider<Repository<Course>> courses, List<Repository<Student>> all) {
+                    this.students = students;
+                    this.courses = courses;
+                    this.all = all;
+                }
+            }
+
+            static class Holder<T> {
+                @Inject
+                T value;
+            }
+
+            static class Discarded {
+                Repository<Discarded> repository;
+            }
+        }
+
         @Nested
         class WithQualifier {
             @Test
@@ -173,6 +354,28 @@ public class ContextTest {
             }
 
 
+            @Test
+            void should_key_equal_qualifiers_of_any_implementation_to_same_component() throws NoSuchFieldException {
+                jakarta.inject.Named declared = Qualified.class.getDeclaredField("dependency").getAnnotation(jakarta.inject.Named.class);
+                Component literal = new Component(Dependency.class, new NamedLiteral("ChoseOne"));
+                Component built = new Component(Dependency.class, Qualifiers.of(jakarta.inject.Named.class, Map.of("value", "ChoseOne")));
+                Component read = new Component(Dependency.class, declared);
+
+                assertEquals(literal, built);
+                assertEquals(literal, read);
+                assertEquals(literal.hashCode(), read.hashCode());
+                assertFalse(literal.equals(new Component(Dependency.class, new NamedLiteral("Another"))));
+                assertFalse(literal.equals(new Component(TestComponent.class, new NamedLiteral("ChoseOne"))));
+            }
+
+            @Test
+            void should_retrieve_component_bound_with_declared_qualifier_by_literal() throws NoSuchFieldException {
+                jakarta.inject.Named declared = Qualified.class.getDeclaredField("dependency").getAnnotation(jakarta.inject.Named.class);
+                config.bind(Dependency.class, dependency, declared);
+
+                assertSame(dependency, config.getContext().get(ComponentRef.of(Dependency.class, new NamedLiteral("ChoseOne"))).get());
+            }
+
             @Test
             void should_throw_exception_if_illegal_qualifier_given_to_instance() {
                 assertThrows(IllegalComponentException.class, () -> config.bind(TestComponent.class, instance, new TestLiteral()));
@@ -185,6 +388,11 @@ public class ContextTest {
             }
 
             // TODO: 2023/3/4 Provider
+
+            static class Qualified {
+                @jakarta.inject.Named("ChoseOne")
+                Dependency dependency;
+            }
         }
 
         @Nested
@@ -205,6 +413,67 @@ public class ContextTest {
                 assertSame(context.get(ComponentRef.of(NotSingleton.class)).get(), context.get(ComponentRef.of(NotSingleton.class)).get());
             }
 
+            @Test
+            void should_construct_singleton_once_if_accessed_concurrently() throws Exception {
+                SlowSingleton.CONSTRUCTED.set(0);
+                config.bind(SlowSingleton.class, SlowSingleton.class);
+                Context context = config.getContext();
+                ExecutorService executor = Executors.newFixedThreadPool(8);
+                CountDownLatch start = new CountDownLatch(1);
+                try {
+                    List<Future<SlowSingleton>> futures = IntStream.range(0, 8).mapToObj(i -> executor.submit(() -> {
+                        start.await();
+                        return context.get(ComponentRef.of(SlowSingleton.class)).get();
+                    })).toList();
+                    start.countDown();
+
+                    Set<SlowSingleton> instances = new HashSet<>();
+                    for (Future<SlowSingleton> future : futures) {
+                        instances.add(future.get());
+                    }
+                    assertEquals(1, instances.size());
+                    assertEquals(1, SlowSingleton.CONSTRUCTED.get());
+                } finally {
+                    executor.shutdown();
+                }
+            }
+
+            @Test
+            void should_construct_singletons_eagerly_if_context_initialized_on_executor() {
+                SlowSingleton.CONSTRUCTED.set(0);
+                config.bind(SlowSingleton.class, SlowSingleton.class);
+                config.bind(NotSingleton.class, NotSingleton.class);
+
+                config.getContext(ForkJoinPool.commonPool());
+
+                assertEquals(1, SlowSingleton.CONSTRUCTED.get());
+            }
+
+            @Test
+            void should_construct_independent_singletons_in_parallel() {
+                ParallelSingleton.CONSTRUCTING = new CountDownLatch(2);
+                config.bind(ParallelSingleton.class, ParallelSingleton.class);
+                config.bind(AnotherParallelSingleton.class, AnotherParallelSingleton.class);
+                config.bind(DependentSingleton.class, DependentSingleton.class);
+                ExecutorService executor = Executors.newFixedThreadPool(2);
+                try {
+                    Context context = config.getContext(executor);
+
+                    DependentSingleton dependent = context.get(ComponentRef.of(DependentSingleton.class)).get();
+                    assertTrue(dependent.parallel.constructedInParallel);
+                    assertTrue(dependent.another.constructedInParallel);
+                } finally {
+                    executor.shutdown();
+                }
+            }
+
+            @Test
+            void should_throw_exception_if_eager_singleton_construction_failed() {
+                config.bind(FailingSingleton.class, FailingSingleton.class);
+
+                assertThrows(IllegalStateException.class, () -> config.getContext(ForkJoinPool.commonPool()));
+            }
+
             @Test
             void should_retrieve_scope_annotation_from_component() {
                 config.bind(Dependency.class, SingletonAnnotated.class);
@@ -222,9 +491,13 @@ public class ContextTest {
                 Context context = config.getContext();
 
                 List<NotSingleton> instances =
-                    IntStream.range(0, 5).mapToObj(i -> context.get(ComponentRef.of(NotSingleton.class)).get()).toList();
+                    IntStream.range(0, PooledProvider.MAX).mapToObj(i -> context.get(ComponentRef.of(NotSingleton.class)).get()).toList();
 
                 assertEquals(PooledProvider.MAX, new HashSet<>(instances).size());
+                assertThrows(PoolExhaustedException.class, () -> context.get(ComponentRef.of(NotSingleton.class)));
+
+                instances.forEach(instance -> context.release(ComponentRef.of(NotSingleton.class), instance));
+                assertTrue(instances.contains(context.get(ComponentRef.of(NotSingleton.class)).get()));
             }
 
             @Test
@@ -261,6 +534,52 @@ public class ContextTest {
 
             }
 
+            @Singleton
+            static class SlowSingleton {
+                static final AtomicInteger CONSTRUCTED = new AtomicInteger();
+
+                public SlowSingleton() throws InterruptedException {
+                    Thread.sleep(50);
+                    CONSTRUCTED.incrementAndGet();
+                }
+            }
+
+            @Singleton
+            static class ParallelSingleton {
+                static CountDownLatch CONSTRUCTING;
+                final boolean constructedInParallel;
+
+                public ParallelSingleton() throws InterruptedException {
+                    CONSTRUCTING.countDown();
+                    constructedInParallel = CONSTRUCTING.await(5, TimeUnit.SECONDS);
+                }
+            }
+
+            @Singleton
+            static class AnotherParallelSingleton extends ParallelSingleton {
+                public AnotherParallelSingleton() throws InterruptedException {
+                }
+            }
+
+            @Singleton
+            static class DependentSingleton {
+                final ParallelSingleton parallel;
+                final AnotherParallelSingleton another;
+
+                @Inject
+                public DependentSingleton(ParallelSingleton parallel, AnotherParallelSingleton another) {
+                    this.parallel = parallel;
+                    this.another = another;
+                }
+            }
+
+            @Singleton
+            static class FailingSingleton {
+                public FailingSingleton() {
+                    throw new IllegalStateException();
+                }
+            }
+
             @Nested
             class WithQualifier {
                 @Test
@@ -292,108 +611,2211 @@ public class ContextTest {
                 }
 
             }
-        }
 
-    }
+            @Nested
+            class WithPool {
+                @Test
+                void should_configure_pool_from_annotation_members() {
+                    config.bind(PooledComponent.class, PooledComponent.class);
+                    Context context = config.getContext();
 
-    @Nested
-    class DependencyCheck {
-        static Stream<Arguments> should_throw_exception_if_dependency_not_found() {
-            return Stream.of(Arguments.of(Named.of("Inject Constructor", DependencyCheck.MissingDependencyConstructor.class)),
-                Arguments.of(Named.of("Inject Field", DependencyCheck.MissingDependencyField.class)),
-                Arguments.of(Named.of("Inject Method", DependencyCheck.MissingDependencyMethod.class)),
-                Arguments.of(Named.of("Provider in Inject Constructor", DependencyCheck.MissingDependencyProviderConstructor.class)),
-                Arguments.of(Named.of("Provider in Inject Field", DependencyCheck.MissingDependencyProviderField.class)),
-                Arguments.of(Named.of("Provider in Inject Method", DependencyCheck.MissingDependencyProviderMethod.class)),
-                Arguments.of(Named.of("Scoped", MissingDependencyScoped.class)),
-                Arguments.of(Named.of("Provider Scoped", MissingDependencyProviderScoped.class))
-            );
-        }
+                    context.get(ComponentRef.of(PooledComponent.class));
+                    PoolExhaustedException exception =
+                        assertThrows(PoolExhaustedException.class, () -> context.get(ComponentRef.of(PooledComponent.class)));
 
-        static Stream<Arguments> should_throw_exception_if_cyclic_dependencies_found() {
-            List<Arguments> arguments = new ArrayList<>();
-            for (Named<? extends Class<? extends TestComponent>> component : List.of(
-                Named.of("Inject Constructor", CyclicComponentInjectConstructor.class),
-                Named.of("Inject Field", CyclicComponentInjectField.class),
-                Named.of("Inject Method", CyclicComponentInjectMethod.class))) {
-                for (Named<? extends Class<? extends Dependency>> dependency : List.of(
-                    Named.of("Inject Constructor", CyclicDependencyInjectConstructor.class),
-                    Named.of("Inject Field", CyclicDependencyInjectField.class),
-                    Named.of("Inject Method", CyclicDependencyInjectMethod.class))) {
-                    arguments.add(Arguments.of(component, dependency));
+                    assertEquals(new PoolMetrics(1, 1, 0, 0, 1, 0, 1), exception.getMetrics());
                 }
-            }
-            return arguments.stream();
-        }
 
-        static Stream<Arguments> should_throw_exception_if_transitive_cyclic_dependencies_found() {
-            List<Arguments> arguments = new ArrayList<>();
-            for (Named<? extends Class<? extends TestComponent>> component : List.of(
-                Named.of("Inject Constructor", CyclicComponentInjectConstructor.class),
-                Named.of("Inject Field", CyclicComponentInjectField.class),
-                Named.of("Inject Method", CyclicComponentInjectMethod.class))) {
-                for (Named<? extends Class<? extends Dependency>> dependency : List.of(
-                    Named.of("Inject Constructor", IndirectCyclicDependencyInjectConstructor.class),
-                    Named.of("Inject Field", IndirectCyclicDependencyInjectField.class),
-                    Named.of("Inject Method", IndirectCyclicDependencyInjectMethod.class))) {
-                    for (Named<? extends Class<? extends AnotherDependency>> anotherDependency : List.of(
-                        Named.of("Inject Constructor", IndirectCyclicAnotherDependencyInjectConstructor.class),
-                        Named.of("Inject Field", IndirectCyclicAnotherDependencyInjectField.class),
-                        Named.of("Inject Method", IndirectCyclicAnotherDependencyInjectMethod.class))) {
-                        arguments.add(Arguments.of(component, dependency, anotherDependency));
+                @Test
+                void should_reuse_instance_given_back_to_pool() {
+                    config.bind(PooledComponent.class, PooledComponent.class);
+                    Context context = config.getContext();
+
+                    PooledComponent borrowed = context.get(ComponentRef.of(PooledComponent.class)).get();
+                    context.release(ComponentRef.of(PooledComponent.class), borrowed);
+
+                    assertSame(borrowed, context.get(ComponentRef.of(PooledComponent.class)).get());
+                    assertEquals(new PoolMetrics(1, 1, 0, 0, 1, 0, 0), context.poolMetrics(ComponentRef.of(PooledComponent.class)).get());
+                }
+
+                @Test
+                void should_wait_for_instance_released_by_another_thread() throws Exception {
+                    config.bind(WaitingComponent.class, WaitingComponent.class);
+                    Context context = config.getContext();
+                    WaitingComponent borrowed = context.get(ComponentRef.of(WaitingComponent.class)).get();
+
+                    ExecutorService executor = Executors.newSingleThreadExecutor();
+                    try {
+                        Future<WaitingComponent> waiting = executor.submit(() -> context.get(ComponentRef.of(WaitingComponent.class)).get());
+                        Thread.sleep(50);
+                        context.release(ComponentRef.of(WaitingComponent.class), borrowed);
+
+                        assertSame(borrowed, waiting.get());
+                    } finally {
+                        executor.shutdown();
                     }
                 }
-            }
-            return arguments.stream();
-        }
 
-        @ParameterizedTest
-        @MethodSource
-        void should_throw_exception_if_dependency_not_found(Class<? extends TestComponent> component) {
-            config.bind(TestComponent.class, component);
+                @Test
+                void should_evict_instance_idle_too_long() throws Exception {
+                    config.bind(EvictedComponent.class, EvictedComponent.class);
+                    Context context = config.getContext();
 
-            DependencyNotFoundException exception =
-                assertThrows(DependencyNotFoundException.class, () -> config.getContext());
+                    EvictedComponent borrowed = context.get(ComponentRef.of(EvictedComponent.class)).get();
+                    context.release(ComponentRef.of(EvictedComponent.class), borrowed);
+                    Thread.sleep(20);
 
-            assertSame(Dependency.class, exception.getDependency().type());
-            assertSame(TestComponent.class, exception.getComponent().type());
-        }
+                    assertNotSame(borrowed, context.get(ComponentRef.of(EvictedComponent.class)).get());
+                    assertEquals(1, context.poolMetrics(ComponentRef.of(EvictedComponent.class)).get().evicted());
+                }
 
-        @ParameterizedTest(name = "cyclic dependency between {0} and {1}")
-        @MethodSource
-        void should_throw_exception_if_cyclic_dependencies_found(Class<? extends TestComponent> component,
-                                                                 Class<? extends Dependency> dependency) {
-            config.bind(TestComponent.class, component);
-            config.bind(Dependency.class, dependency);
+                @Test
+                void should_throw_exception_if_release_instance_not_borrowed() {
+                    config.bind(PooledComponent.class, PooledComponent.class);
+                    Context context = config.getContext();
 
-            CyclicDependenciesFoundException e =
-                assertThrows(CyclicDependenciesFoundException.class, () -> config.getContext());
+                    assertThrows(IllegalArgumentException.class,
+                        () -> context.release(ComponentRef.of(PooledComponent.class), new PooledComponent()));
+                }
 
-            Set<Class<?>> classes = Sets.newSet(e.getComponents());
-            assertEquals(2, classes.size());
-            assertTrue(classes.contains(TestComponent.class));
-            assertTrue(classes.contains(Dependency.class));
-        }
+                @Test
+                void should_not_provide_pool_metrics_if_component_not_pooled() {
+                    config.bind(NotSingleton.class, NotSingleton.class);
 
-        // A-> B -> C -> A
-        @ParameterizedTest(name = "indirect cyclic dependency between {0}, {1} and {2}")
-        @MethodSource
-        void should_throw_exception_if_transitive_cyclic_dependencies_found(Class<? extends TestComponent> component,
-                                                                            Class<? extends Dependency> dependency,
-                                                                            Class<? extends AnotherDependency> anotherDependency) {
-            config.bind(TestComponent.class, component);
-            config.bind(Dependency.class, dependency);
-            config.bind(AnotherDependency.class, anotherDependency);
+                    assertTrue(config.getContext().poolMetrics(ComponentRef.of(NotSingleton.class)).isEmpty());
+                }
 
-            CyclicDependenciesFoundException e =
-                assertThrows(CyclicDependenciesFoundException.class, () -> config.getContext());
+                @Test
+                void should_fill_pool_up_to_min_when_context_got() {
+                    config.bind(PrefilledComponent.class, PrefilledComponent.class);
 
-            List<Class<?>> components = Arrays.asList(e.getComponents());
+                    Context context = config.getContext();
 
-            assertEquals(3, components.size());
-            assertTrue(components.contains(TestComponent.class));
-            assertTrue(components.contains(Dependency.class));
-            assertTrue(components.contains(AnotherDependency.class));
+                    assertEquals(new PoolMetrics(2, 0, 2, 0, 2, 0, 0), context.poolMetrics(ComponentRef.of(PrefilledComponent.class)).get());
+                }
+
+                @Test
+                void should_throw_exception_if_pooled_component_injected_directly() {
+                    config.bind(PooledComponent.class, PooledComponent.class);
+                    config.bind(PooledConsumer.class, PooledConsumer.class);
+
+                    ScopeMismatchException exception = assertThrows(ScopeMismatchException.class, () -> config.getContext());
+
+                    assertEquals(new Component(PooledConsumer.class, null), exception.getComponent());
+                    assertEquals(new Component(PooledComponent.class, null), exception.getDependency());
+                }
+
+                @Test
+                void should_inject_pooled_component_through_provider() {
+                    config.bind(PooledComponent.class, PooledComponent.class);
+                    config.bind(PooledProviderConsumer.class, PooledProviderConsumer.class);
+                    Context context = config.getContext();
+
+                    PooledProviderConsumer consumer = context.get(ComponentRef.of(PooledProviderConsumer.class)).get();
+                    PooledComponent borrowed = consumer.pooled.get();
+                    context.release(ComponentRef.of(PooledComponent.class), borrowed);
+
+                    assertSame(borrowed, consumer.pooled.get());
+                }
+
+                @Pool(max = 1)
+                static class PooledComponent {
+                }
+
+                @Pool(min = 2, max = 2)
+                static class PrefilledComponent {
+                }
+
+                static class PooledConsumer {
+                    @Inject
+                    public PooledConsumer(PooledComponent pooled) {
+                    }
+                }
+
+                static class PooledProviderConsumer {
+                    final Provider<PooledComponent> pooled;
+
+                    @Inject
+                    public PooledProviderConsumer(Provider<PooledComponent> pooled) {
+                        this.pooled = pooled;
+                    }
+                }
+
+                @Pool(max = 1, timeoutMillis = 5000)
+                static class WaitingComponent {
+                }
+
+                @Pool(max = 1, idleMillis = 1)
+                static class EvictedComponent {
+                }
+            }
+
+            @Nested
+            class WithRequestScope {
+                @Test
+                void should_retrieve_same_instance_within_request() {
+                    config.bind(RequestComponent.class, RequestComponent.class);
+                    Context context = config.getContext();
+
+                    RequestScope.run(() -> assertSame(context.get(ComponentRef.of(RequestComponent.class)).get(),
+                        context.get(ComponentRef.of(RequestComponent.class)).get()));
+                }
+
+                @Test
+                void should_retrieve_different_instances_in_different_requests() throws Exception {
+                    config.bind(RequestComponent.class, RequestComponent.class);
+                    Context context = config.getContext();
+
+                    RequestComponent first = RequestScope.call(() -> context.get(ComponentRef.of(RequestComponent.class)).get());
+                    RequestComponent second = RequestScope.call(() -> context.get(ComponentRef.of(RequestComponent.class)).get());
+
+                    assertNotSame(first, second);
+                }
+
+                @Test
+                void should_throw_exception_if_retrieved_out_of_request() {
+                    config.bind(RequestComponent.class, RequestComponent.class);
+                    Context context = config.getContext();
+
+                    assertThrows(IllegalStateException.class, () -> context.get(ComponentRef.of(RequestComponent.class)));
+                    assertTrue(RequestScope.current().isEmpty());
+                }
+
+                @Test
+                void should_restore_outer_request_after_nested_request() throws Exception {
+                    config.bind(RequestComponent.class, RequestComponent.class);
+                    Context context = config.getContext();
+
+                    RequestScope.run(() -> {
+                        RequestComponent outer = context.get(ComponentRef.of(RequestComponent.class)).get();
+                        RequestScope.run(() -> assertNotSame(outer, context.get(ComponentRef.of(RequestComponent.class)).get()));
+                        assertSame(outer, context.get(ComponentRef.of(RequestComponent.class)).get());
+                    });
+                    assertTrue(RequestScope.current().isEmpty());
+                }
+
+                @Test
+                void should_share_instance_with_task_propagated_to_another_thread() throws Exception {
+                    config.bind(RequestComponent.class, RequestComponent.class);
+                    Context context = config.getContext();
+                    ExecutorService executor = Executors.newSingleThreadExecutor();
+                    try {
+                        RequestScope.call(() -> {
+                            RequestComponent instance = context.get(ComponentRef.of(RequestComponent.class)).get();
+                            List<RequestComponent> propagated = new ArrayList<>();
+                            executor.submit(RequestScope.propagate(() -> propagated.add(context.get(ComponentRef.of(RequestComponent.class)).get())))
+                                .get();
+                            assertSame(instance, propagated.get(0));
+                            return null;
+                        });
+                    } finally {
+                        executor.shutdown();
+                    }
+                }
+
+                @Test
+                void should_inject_request_scoped_dependency_into_request_scoped_component() {
+                    config.bind(RequestComponent.class, RequestComponent.class);
+                    config.bind(RequestDependent.class, RequestDependent.class);
+                    Context context = config.getContext();
+
+                    RequestScope.run(() -> assertSame(context.get(ComponentRef.of(RequestComponent.class)).get(),
+                        context.get(ComponentRef.of(RequestDependent.class)).get().component));
+                }
+
+                @Test
+                void should_construct_once_for_gets_of_request_on_different_threads() throws Exception {
+                    SlowRequestComponent.constructed.set(0);
+                    config.bind(SlowRequestComponent.class, SlowRequestComponent.class);
+                    Context context = config.getContext();
+                    ExecutorService executor = Executors.newFixedThreadPool(2);
+                    try {
+                        RequestScope.call(() -> {
+                            List<SlowRequestComponent> instances = Collections.synchronizedList(new ArrayList<>());
+                            Runnable get = RequestScope.propagate(() -> instances.add(context.get(ComponentRef.of(SlowRequestComponent.class)).get()));
+                            Future<?> first = executor.submit(get);
+                            Future<?> second = executor.submit(get);
+                            first.get();
+                            second.get();
+                            assertSame(instances.get(0), instances.get(1));
+                            return null;
+                        });
+                    } finally {
+                        executor.shutdown();
+                    }
+
+                    assertEquals(1, SlowRequestComponent.constructed.get());
+                }
+
+                @Test
+                void should_throw_exception_if_request_scoped_component_injected_into_singleton() {
+                    config.bind(RequestComponent.class, RequestComponent.class);
+                    config.bind(RequestConsumer.class, RequestConsumer.class);
+
+                    ScopeMismatchException exception = assertThrows(ScopeMismatchException.class, () -> config.getContext());
+
+                    assertEquals(new Component(RequestComponent.class, null), exception.getDependency());
+                }
+
+                @Test
+                void should_inject_request_scoped_component_into_singleton_through_provider() {
+                    config.bind(RequestComponent.class, RequestComponent.class);
+                    config.bind(RequestProviderConsumer.class, RequestProviderConsumer.class);
+                    Context context = config.getContext();
+                    RequestProviderConsumer consumer = context.get(ComponentRef.of(RequestProviderConsumer.class)).get();
+
+                    RequestScope.run(() -> assertSame(context.get(ComponentRef.of(RequestComponent.class)).get(), consumer.component.get()));
+                }
+
+                @RequestScoped
+                static class RequestComponent {
+                }
+
+                @RequestScoped
+                static class SlowRequestComponent {
+                    static final AtomicInteger constructed = new AtomicInteger();
+
+                    public SlowRequestComponent() throws InterruptedException {
+                        constructed.incrementAndGet();
+                        Thread.sleep(100);
+                    }
+                }
+
+                @Singleton
+                static class RequestConsumer {
+                    @Inject
+                    RequestComponent component;
+                }
+
+                @Singleton
+                static class RequestProviderConsumer {
+                    @Inject
+                    Provider<RequestComponent> component;
+                }
+
+                @RequestScoped
+                static class RequestDependent {
+                    final RequestComponent component;
+
+                    @Inject
+                    public RequestDependent(RequestComponent component) {
+                        this.component = component;
+                    }
+                }
+            }
+
+            @Nested
+            class WithCache {
+                @BeforeEach
+                void setup() {
+                    DestroyedCachedComponent.destroyed.set(0);
+                    DestroyedCachedComponent.constructing = new CountDownLatch(2);
+                    ExpiringComponent.destroyed.set(0);
+                }
+
+                @Test
+                void should_retrieve_same_instance_from_cache() {
+                    config.bind(CachedComponent.class, CachedComponent.class);
+                    Context context = config.getContext();
+
+                    assertSame(context.get(ComponentRef.of(CachedComponent.class)).get(),
+                        context.get(ComponentRef.of(CachedComponent.class)).get());
+                }
+
+                @Test
+                void should_share_cached_instance_between_threads() throws Exception {
+                    config.bind(CachedComponent.class, CachedComponent.class);
+                    Context context = config.getContext();
+                    ExecutorService executor = Executors.newSingleThreadExecutor();
+                    try {
+                        CachedComponent other = executor.submit(() -> context.get(ComponentRef.of(CachedComponent.class)).get()).get();
+
+                        assertSame(other, context.get(ComponentRef.of(CachedComponent.class)).get());
+                    } finally {
+                        executor.shutdown();
+                    }
+                }
+
+                @Test
+                void should_evict_and_destroy_least_recently_used_instance_beyond_max_size() throws Exception {
+                    config.bind(DestroyedCachedComponent.class, DestroyedCachedComponent.class);
+                    Context context = config.getContext();
+                    ExecutorService executor = Executors.newFixedThreadPool(2);
+                    try {
+                        Future<DestroyedCachedComponent> first = executor.submit(() -> context.get(ComponentRef.of(DestroyedCachedComponent.class)).get());
+                        Future<DestroyedCachedComponent> second = executor.submit(() -> context.get(ComponentRef.of(DestroyedCachedComponent.class)).get());
+
+                        assertNotSame(first.get(), second.get());
+                        assertEquals(new CacheMetrics(1, 1, 0, 2, 1, 0),
+                            context.cacheMetrics(ComponentRef.of(DestroyedCachedComponent.class)).get());
+                        assertEquals(1, DestroyedCachedComponent.destroyed.get());
+                    } finally {
+                        executor.shutdown();
+                    }
+                }
+
+                @Test
+                void should_construct_instance_again_after_ttl() throws Exception {
+                    config.bind(ExpiringComponent.class, ExpiringComponent.class);
+                    Context context = config.getContext();
+
+                    ExpiringComponent instance = context.get(ComponentRef.of(ExpiringComponent.class)).get();
+                    Thread.sleep(20);
+
+                    assertNotSame(instance, context.get(ComponentRef.of(ExpiringComponent.class)).get());
+                    assertEquals(1, context.cacheMetrics(ComponentRef.of(ExpiringComponent.class)).get().evicted());
+                    assertEquals(1, ExpiringComponent.destroyed.get());
+                }
+
+                @Test
+                void should_provide_hit_rate_of_cache() {
+                    config.bind(CachedComponent.class, CachedComponent.class);
+                    Context context = config.getContext();
+
+                    IntStream.range(0, 4).forEach(i -> context.get(ComponentRef.of(CachedComponent.class)));
+
+                    assertEquals(0.75, context.cacheMetrics(ComponentRef.of(CachedComponent.class)).get().hitRate());
+                    assertTrue(context.cacheMetrics(ComponentRef.of(NotSingleton.class)).isEmpty());
+                }
+
+                @Test
+                void should_destroy_cached_instances_when_context_closed() {
+                    config.bind(DestroyedCachedComponent.class, DestroyedCachedComponent.class);
+                    Context context = config.getContext();
+                    context.get(ComponentRef.of(DestroyedCachedComponent.class));
+
+                    context.close();
+
+                    assertEquals(1, DestroyedCachedComponent.destroyed.get());
+                    assertEquals(0, context.cacheMetrics(ComponentRef.of(DestroyedCachedComponent.class)).get().size());
+                }
+
+                @Test
+                void should_throw_exception_if_cached_component_injected_into_singleton() {
+                    config.bind(CachedComponent.class, CachedComponent.class);
+                    config.bind(CachedConsumer.class, CachedConsumer.class);
+
+                    ScopeMismatchException exception = assertThrows(ScopeMismatchException.class, () -> config.getContext());
+
+                    assertEquals(new Component(CachedComponent.class, null), exception.getDependency());
+                }
+
+                @Cached
+                static class CachedComponent {
+                }
+
+                @Singleton
+                static class CachedConsumer {
+                    @Inject
+                    public CachedConsumer(CachedComponent component) {
+                    }
+                }
+
+                @Cached(ttlMillis = 1)
+                static class ExpiringComponent {
+                    static final AtomicInteger destroyed = new AtomicInteger();
+
+                    @PreDestroy
+                    void destroy() {
+                        destroyed.incrementAndGet();
+                    }
+                }
+
+                @Cached(maxSize = 1)
+                static class DestroyedCachedComponent {
+                    static final AtomicInteger destroyed = new AtomicInteger();
+                    static CountDownLatch constructing = new CountDownLatch(2);
+
+                    @Inject
+                    DestroyedCachedComponent() throws InterruptedException {
+                        constructing.countDown();
+                        constructing.await(1, TimeUnit.SECONDS);
+                    }
+
+                    @PreDestroy
+                    void destroy() {
+                        destroyed.incrementAndGet();
+                    }
+                }
+            }
+        }
+
+    }
+
+    @Nested
+    class WithGeneratedProvider {
+        @BeforeEach
+        public void before() {
+            GeneratedSingleton_ComponentProvider.constructed.set(0);
+            GeneratedRequestComponent_ComponentProvider.constructed.set(0);
+        }
+
+        @Test
+        void should_construct_singleton_once_through_generated_provider() {
+            config.bind(Dependency.class, dependency);
+            config.bind(GeneratedSingleton.class, GeneratedSingleton.class);
+            Context context = config.getContext();
+
+            GeneratedSingleton singleton = context.get(ComponentRef.of(GeneratedSingleton.class)).get();
+
+            assertSame(singleton, context.get(ComponentRef.of(GeneratedSingleton.class)).get());
+            assertSame(dependency, singleton.dependency);
+            assertEquals(1, GeneratedSingleton_ComponentProvider.constructed.get());
+        }
+
+        @Test
+        void should_construct_once_per_request_through_generated_provider() throws Exception {
+            config.bind(Dependency.class, dependency);
+            config.bind(GeneratedRequestComponent.class, GeneratedRequestComponent.class);
+            Context context = config.getContext();
+            ComponentRef<GeneratedRequestComponent> ref = ComponentRef.of(GeneratedRequestComponent.class);
+
+            GeneratedRequestComponent first = RequestScope.call(() -> {
+                GeneratedRequestComponent component = context.get(ref).get();
+                assertSame(component, context.get(ref).get());
+                return component;
+            });
+
+            assertNotSame(first, RequestScope.call(() -> context.get(ref).get()));
+            assertEquals(2, GeneratedRequestComponent_ComponentProvider.constructed.get());
+        }
+
+        @Test
+        void should_count_dependencies_got_by_generated_provider() {
+            config.collectStatistics(true);
+            config.bind(Dependency.class, dependency);
+            config.bind(GeneratedRequestComponent.class, GeneratedRequestComponent.class);
+            Context context = config.getContext();
+
+            RequestScope.run(() -> context.get(ComponentRef.of(GeneratedRequestComponent.class)));
+
+            assertEquals(1, context.statistics().get(new Component(Dependency.class, null)).resolutions());
+            assertEquals(1, context.statistics().get(new Component(GeneratedRequestComponent.class, null)).constructions());
+        }
+
+        @Test
+        void should_not_construct_singleton_through_generated_provider_after_close() {
+            config.bind(Dependency.class, dependency);
+            config.bind(GeneratedSingleton.class, GeneratedSingleton.class);
+            Context context = config.getContext();
+            context.close();
+
+            assertThrows(IllegalStateException.class, () -> context.get(ComponentRef.of(GeneratedSingleton.class)));
+        }
+
+        @Singleton
+        static class GeneratedSingleton {
+            final Dependency dependency;
+
+            @Inject
+            public GeneratedSingleton(Dependency dependency) {
+                this.dependency = dependency;
+            }
+        }
+
+        /**
+         * as written by the inject processor, counting its constructions
+         */
+        public static final class GeneratedSingleton_ComponentProvider implements ComponentProvider<GeneratedSingleton> {
+            static final AtomicInteger constructed = new AtomicInteger();
+            private static final ComponentRef<Dependency> DEPENDENCY_0 = ComponentRef.of(Dependency.class);
+            private static final List<ComponentRef<?>> DEPENDENCIES = List.of(DEPENDENCY_0);
+
+            @Override
+            public GeneratedSingleton get(Context context) {
+                constructed.incrementAndGet();
+                GeneratedSingleton instance = new GeneratedSingleton(context.get(DEPENDENCY_0).get());
+                return instance;
+            }
+
+            @Override
+            public List<ComponentRef<?>> getDependencies() {
+                return DEPENDENCIES;
+            }
+        }
+
+        @RequestScoped
+        static class GeneratedRequestComponent {
+            @Inject
+            Dependency dependency;
+        }
+
+        public static final class GeneratedRequestComponent_ComponentProvider implements ComponentProvider<GeneratedRequestComponent> {
+            static final AtomicInteger constructed = new AtomicInteger();
+            private static final ComponentRef<Dependency> DEPENDENCY_0 = ComponentRef.of(Dependency.class);
+            private static final List<ComponentRef<?>> DEPENDENCIES = List.of(DEPENDENCY_0);
+
+            @Override
+            public GeneratedRequestComponent get(Context context) {
+                constructed.incrementAndGet();
+                GeneratedRequestComponent instance = new GeneratedRequestComponent();
+                instance.dependency = context.get(DEPENDENCY_0).get();
+                return instance;
+            }
+
+            @Override
+            public List<ComponentRef<?>> getDependencies() {
+                return DEPENDENCIES;
+            }
+        }
+    }
+
+    @Nested
+    class GeneratedFactory {
+        static Stream<Arguments> should_bind_type_to_an_injectable_component() {
+            return Stream.of(Arguments.of(Named.of("Constructor Injection", TypeBinding.ConstructorInjection.class)),
+                Arguments.of(Named.of("Field Injection", TypeBinding.FieldInjection.class)),
+                Arguments.of(Named.of("Method Injection", TypeBinding.MethodInjection.class)));
+        }
+
+        @BeforeEach
+        public void before() {
+            config.useGeneratedFactories(true);
+        }
+
+        @ParameterizedTest(name = "supporting {0}")
+        @MethodSource
+        void should_bind_type_to_an_injectable_component(Class<? extends TestComponent> componentType) {
+            config.bind(Dependency.class, dependency);
+            config.bind(TestComponent.class, componentType);
+
+            TestComponent component = config.getContext().get(ComponentRef.of(TestComponent.class)).get();
+
+            assertSame(dependency, component.dependency());
+        }
+
+        @Test
+        void should_instantiate_component_through_generated_factory() {
+            assertTrue(GeneratedProvider.of(TypeBinding.ConstructorInjection.class) instanceof GeneratedProvider);
+        }
+
+        @Test
+        void should_inject_superclass_members_only_once_through_generated_factory() {
+            config.bind(Dependency.class, dependency);
+            config.bind(SubClassInjection.class, SubClassInjection.class);
+
+            SubClassInjection component = config.getContext().get(ComponentRef.of(SubClassInjection.class)).get();
+
+            assertSame(dependency, component.dependency);
+            assertSame(dependency, component.another);
+            assertEquals(1, component.installed);
+        }
+
+        @Test
+        void should_fall_back_to_reflection_if_implementation_not_accessible() {
+            assertTrue(GeneratedProvider.of(ArrayList.class) instanceof InjectionProvider);
+
+            config.bind(List.class, ArrayList.class);
+            assertTrue(config.getContext().get(ComponentRef.of(List.class)).get().isEmpty());
+        }
+
+        static class SuperClassInjection {
+            @Inject
+            Dependency dependency;
+            int installed;
+
+            @Inject
+            void install() {
+                installed++;
+            }
+        }
+
+        static class SubClassInjection extends SuperClassInjection {
+            Dependency another;
+
+            @Inject
+            void install(Dependency dependency) {
+                this.another = dependency;
+            }
+
+            @Inject
+            @Override
+            void install() {
+                super.install();
+            }
+        }
+    }
+
+    @Nested
+    class Handle {
+        @Test
+        void should_get_component_through_handle() {
+            config.bind(Dependency.class, dependency);
+            config.bind(TestComponent.class, TypeBinding.ConstructorInjection.class);
+
+            ComponentHandle<TestComponent> handle = config.getContext().handle(ComponentRef.of(TestComponent.class));
+
+            assertSame(dependency, handle.get().dependency());
+            assertNotSame(handle.get(), handle.get());
+            assertEquals(new Component(TestComponent.class, null), handle.component());
+        }
+
+        @Test
+        void should_get_singleton_through_handle() {
+            config.bind(Dependency.class, Statistics.SingletonDependency.class);
+            Context context = config.getContext();
+
+            ComponentHandle<Dependency> handle = context.handle(ComponentRef.of(Dependency.class));
+
+            assertSame(context.get(ComponentRef.of(Dependency.class)).get(), handle.get());
+        }
+
+        @Test
+        void should_resolve_handle_once_per_component() {
+            config.bind(Dependency.class, dependency);
+            Context context = config.getContext();
+
+            assertSame(context.handle(ComponentRef.of(Dependency.class)), context.handle(ComponentRef.of(Dependency.class)));
+        }
+
+        @Test
+        void should_give_same_provider_through_provider_handle() {
+            config.bind(Dependency.class, dependency);
+            Context context = config.getContext();
+
+            ComponentHandle<Provider<Dependency>> handle = context.handle(new ComponentRef<>() {
+            });
+
+            assertSame(handle.get(), handle.get());
+            assertSame(dependency, handle.get().get());
+        }
+
+        @Test
+        void should_get_parent_component_through_child_handle() {
+            config.bind(Dependency.class, dependency);
+            Context child = new ContextConfig(config.getContext()).getContext();
+
+            assertSame(dependency, child.handle(ComponentRef.of(Dependency.class)).get());
+        }
+
+        @Test
+        void should_throw_exception_if_handle_component_not_bound() {
+            Context context = config.getContext();
+
+            DependencyNotFoundException exception =
+                assertThrows(DependencyNotFoundException.class, () -> context.handle(ComponentRef.of(Dependency.class)));
+
+            assertEquals(new Component(Dependency.class, null), exception.getDependency());
+        }
+    }
+
+    @Nested
+    class CollectionBinding {
+        @Test
+        void should_retrieve_all_qualified_components_as_list_in_bind_order() {
+            Dependency another = new Dependency() {
+            };
+            config.bind(Dependency.class, dependency, new NamedLiteral("one"));
+            config.bind(Dependency.class, another, new SkywalkerLiteral());
+
+            List<Dependency> dependencies = config.getContext().get(new ComponentRef<List<Dependency>>() {
+            }).get();
+
+            assertEquals(List.of(dependency, another), dependencies);
+        }
+
+        @Test
+        void should_retrieve_all_components_as_set() {
+            Dependency another = new Dependency() {
+            };
+            config.bind(Dependency.class, dependency);
+            config.bind(Dependency.class, another, new SkywalkerLiteral());
+
+            Set<Dependency> dependencies = config.getContext().get(new ComponentRef<Set<Dependency>>() {
+            }).get();
+
+            assertEquals(Set.of(dependency, another), dependencies);
+        }
+
+        @Test
+        void should_retrieve_empty_collection_if_no_component_bound() {
+            Context context = config.getContext();
+
+            assertTrue(context.get(new ComponentRef<List<Dependency>>() {
+            }).get().isEmpty());
+            assertTrue(context.get(new ComponentRef<Set<Dependency>>() {
+            }).get().isEmpty());
+        }
+
+        @Test
+        void should_retrieve_component_bound_with_several_qualifiers_once() {
+            config.bind(Dependency.class, dependency, new NamedLiteral("one"), new SkywalkerLiteral());
+
+            assertEquals(List.of(dependency), config.getContext().get(new ComponentRef<List<Dependency>>() {
+            }).get());
+        }
+
+        @Test
+        void should_retrieve_component_bound_with_several_qualifiers_in_collection_of_each() {
+            config.bind(Dependency.class, dependency, new NamedLiteral("one"), new SkywalkerLiteral());
+            Context context = config.getContext();
+
+            assertEquals(List.of(dependency), context.get(new ComponentRef<List<Dependency>>(new NamedLiteral("one")) {
+            }).get());
+            assertEquals(List.of(dependency), context.get(new ComponentRef<List<Dependency>>(new SkywalkerLiteral()) {
+            }).get());
+        }
+
+        @Test
+        void should_keep_component_bound_with_several_qualifiers_if_child_binds_one_again() {
+            config.bind(Dependency.class, dependency, new NamedLiteral("one"), new SkywalkerLiteral());
+            ContextConfig child = new ContextConfig(config.getContext());
+            Dependency rebound = new Dependency() {
+            };
+            child.bind(Dependency.class, rebound, new NamedLiteral("one"));
+            Context context = child.getContext();
+
+            assertEquals(List.of(dependency, rebound), context.get(new ComponentRef<List<Dependency>>() {
+            }).get());
+            assertEquals(List.of(dependency), context.get(new ComponentRef<List<Dependency>>(new SkywalkerLiteral()) {
+            }).get());
+        }
+
+        @Test
+        void should_only_retrieve_components_of_qualifier_for_qualified_collection() {
+            config.bind(Dependency.class, dependency, new NamedLiteral("one"));
+            config.bind(Dependency.class, new Dependency() {
+            }, new SkywalkerLiteral());
+
+            List<Dependency> dependencies = config.getContext().get(new ComponentRef<List<Dependency>>(new NamedLiteral("one")) {
+            }).get();
+
+            assertEquals(List.of(dependency), dependencies);
+        }
+
+        @Test
+        void should_inject_collection_of_components() {
+            config.bind(Dependency.class, dependency, new NamedLiteral("one"));
+            config.bind(Dependency.class, SingletonDependency.class, new SkywalkerLiteral());
+            config.bind(CollectionConsumer.class, CollectionConsumer.class);
+
+            CollectionConsumer consumer = config.getContext().get(ComponentRef.of(CollectionConsumer.class)).get();
+
+            assertEquals(2, consumer.dependencies.size());
+            assertSame(dependency, consumer.dependencies.get(0));
+            assertEquals(Set.copyOf(consumer.dependencies), consumer.set);
+        }
+
+        @Test
+        void should_share_collection_of_singletons() {
+            config.bind(Dependency.class, SingletonDependency.class);
+            Context context = config.getContext();
+
+            assertSame(context.get(new ComponentRef<List<Dependency>>() {
+            }).get(), context.get(new ComponentRef<List<Dependency>>() {
+            }).get());
+        }
+
+        @Test
+        void should_construct_prototype_elements_on_every_get() {
+            config.bind(TestComponent.class, TypeBinding.ConstructorInjection.class);
+            config.bind(Dependency.class, dependency);
+            Context context = config.getContext();
+
+            List<TestComponent> components = context.get(new ComponentRef<List<TestComponent>>() {
+            }).get();
+
+            assertNotSame(components.get(0), context.get(new ComponentRef<List<TestComponent>>() {
+            }).get().get(0));
+        }
+
+        @Test
+        void should_not_modify_retrieved_collection() {
+            config.bind(Dependency.class, dependency);
+
+            List<Dependency> dependencies = config.getContext().get(new ComponentRef<List<Dependency>>() {
+            }).get();
+
+            assertThrows(UnsupportedOperationException.class, () -> dependencies.add(dependency));
+        }
+
+        @Test
+        void should_retrieve_components_of_parent_and_child_in_collection() {
+            config.bind(Dependency.class, dependency, new NamedLiteral("parent"));
+            config.bind(Dependency.class, dependency, new SkywalkerLiteral());
+            ContextConfig child = new ContextConfig(config.getContext());
+            Dependency overridden = new Dependency() {
+            };
+            Dependency added = new Dependency() {
+            };
+            child.bind(Dependency.class, overridden, new SkywalkerLiteral());
+            child.bind(Dependency.class, added, new NamedLiteral("child"));
+
+            List<Dependency> dependencies = child.getContext().get(new ComponentRef<List<Dependency>>() {
+            }).get();
+
+            assertEquals(List.of(dependency, overridden, added), dependencies);
+        }
+
+        @Test
+        void should_throw_exception_if_cyclic_dependencies_through_collection() {
+            config.bind(Dependency.class, CyclicCollectionDependency.class);
+
+            CyclicDependenciesFoundException exception = assertThrows(CyclicDependenciesFoundException.class, () -> config.getContext());
+
+            assertEquals(List.of(new Component(Dependency.class, null)), exception.getCycle());
+        }
+
+        @Singleton
+        static class SingletonDependency implements Dependency {
+        }
+
+        static class CollectionConsumer {
+            @Inject
+            Set<Dependency> set;
+            List<Dependency> dependencies;
+
+            @Inject
+            public CollectionConsumer(List<Dependency> dependencies) {
+                this.dependencies = dependencies;
+            }
+        }
+
+        static class CyclicCollectionDependency implements Dependency {
+            @Inject
+            public CyclicCollectionDependency(List<Dependency> dependencies) {
+            }
+        }
+    }
+
+    @Nested
+    class LazyInjection {
+        @BeforeEach
+        void setup() {
+            ExpensiveComponent.constructed.set(0);
+        }
+
+        @Test
+        void should_not_construct_lazy_dependency_until_first_get() {
+            config.bind(ExpensiveComponent.class, ExpensiveComponent.class);
+            config.bind(LazyConsumer.class, LazyConsumer.class);
+
+            LazyConsumer consumer = config.getContext().get(ComponentRef.of(LazyConsumer.class)).get();
+
+            assertEquals(0, ExpensiveComponent.constructed.get());
+            consumer.expensive.get();
+            assertEquals(1, ExpensiveComponent.constructed.get());
+        }
+
+        @Test
+        void should_keep_instance_of_lazy_dependency_for_each_injection_point() {
+            config.bind(ExpensiveComponent.class, ExpensiveComponent.class);
+            config.bind(LazyConsumer.class, LazyConsumer.class);
+            Context context = config.getContext();
+
+            LazyConsumer first = context.get(ComponentRef.of(LazyConsumer.class)).get();
+            LazyConsumer second = context.get(ComponentRef.of(LazyConsumer.class)).get();
+
+            assertSame(first.expensive.get(), first.expensive.get());
+            assertNotSame(first.expensive.get(), second.expensive.get());
+            assertEquals(2, ExpensiveComponent.constructed.get());
+        }
+
+        @Test
+        void should_break_cyclic_dependencies_with_lazy_dependency() {
+            config.bind(LazyCycleStart.class, LazyCycleStart.class);
+            config.bind(LazyCycleEnd.class, LazyCycleEnd.class);
+
+            LazyCycleStart start = config.getContext().get(ComponentRef.of(LazyCycleStart.class)).get();
+
+            assertSame(start, start.end.get().start);
+        }
+
+        static class ExpensiveComponent {
+            static final AtomicInteger constructed = new AtomicInteger();
+
+            @Inject
+            public ExpensiveComponent() {
+                constructed.incrementAndGet();
+            }
+        }
+
+        static class LazyConsumer {
+            final Lazy<ExpensiveComponent> expensive;
+
+            @Inject
+            public LazyConsumer(Lazy<ExpensiveComponent> expensive) {
+                this.expensive = expensive;
+            }
+        }
+
+        @Singleton
+        static class LazyCycleStart {
+            final Lazy<LazyCycleEnd> end;
+
+            @Inject
+            public LazyCycleStart(Lazy<LazyCycleEnd> end) {
+                this.end = end;
+            }
+        }
+
+        static class LazyCycleEnd {
+            final LazyCycleStart start;
+
+            @Inject
+            public LazyCycleEnd(LazyCycleStart start) {
+                this.start = start;
+            }
+        }
+    }
+
+    @Nested
+    class AsyncResolution {
+        ExecutorService executor;
+
+        @BeforeEach
+        void before() {
+            executor = Executors.newFixedThreadPool(4);
+            OverlappingDependency.arrived = new CountDownLatch(2);
+        }
+
+        @AfterEach
+        void after() {
+            executor.shutdownNow();
+        }
+
+        @Test
+        void should_get_component_asynchronously() {
+            config.bind(Dependency.class, dependency);
+            config.bind(TestComponent.class, TypeBinding.ConstructorInjection.class);
+
+            TestComponent component = config.getContext(executor).getAsync(ComponentRef.of(TestComponent.class)).join();
+
+            assertSame(dependency, component.dependency());
+        }
+
+        @Test
+        void should_construct_independent_dependencies_concurrently() {
+            config.bind(OverlappingDependency.class, OverlappingDependency.class);
+            config.bind(AnotherOverlappingDependency.class, AnotherOverlappingDependency.class);
+            config.bind(OverlappingConsumer.class, OverlappingConsumer.class);
+            Context context = config.getContext(executor);
+
+            OverlappingConsumer consumer = context.getAsync(ComponentRef.of(OverlappingConsumer.class)).join();
+
+            assertNotSame(consumer.dependency, consumer.another);
+        }
+
+        @Test
+        void should_share_singleton_between_async_gets() {
+            config.bind(Dependency.class, CollectionBinding.SingletonDependency.class);
+            Context context = config.getContext();
+
+            Dependency first = context.getAsync(ComponentRef.of(Dependency.class)).join();
+
+            assertSame(first, context.getAsync(ComponentRef.of(Dependency.class)).join());
+            assertSame(first, context.get(ComponentRef.of(Dependency.class)).get());
+        }
+
+        @Test
+        void should_get_provider_asynchronously() {
+            config.bind(Dependency.class, dependency);
+
+            Provider<Dependency> provider = config.getContext().getAsync(new ComponentRef<Provider<Dependency>>() {
+            }).join();
+
+            assertSame(dependency, provider.get());
+        }
+
+        @Test
+        void should_construct_request_scoped_component_in_current_request() {
+            config.bind(TypeBinding.WithScope.WithRequestScope.RequestComponent.class,
+                TypeBinding.WithScope.WithRequestScope.RequestComponent.class);
+            Context context = config.getContext(executor);
+            ComponentRef<TypeBinding.WithScope.WithRequestScope.RequestComponent> ref =
+                ComponentRef.of(TypeBinding.WithScope.WithRequestScope.RequestComponent.class);
+
+            RequestScope.run(() -> assertSame(context.getAsync(ref).join(), context.get(ref).get()));
+        }
+
+        @Test
+        void should_not_get_dependencies_of_instance_held_by_scope() {
+            CountedDependency.constructed = new AtomicInteger();
+            config.bind(CountedDependency.class, CountedDependency.class);
+            config.bind(RequestHolder.class, RequestHolder.class);
+            Context context = config.getContext(executor);
+
+            RequestScope.run(() -> {
+                RequestHolder holder = context.getAsync(ComponentRef.of(RequestHolder.class)).join();
+                for (int i = 0; i < 5; i++) {
+                    assertSame(holder, context.getAsync(ComponentRef.of(RequestHolder.class)).join());
+                }
+            });
+
+            assertEquals(1, CountedDependency.constructed.get());
+        }
+
+        @Test
+        void should_destroy_dependencies_got_ahead_if_pool_gives_idle_instance() throws Exception {
+            GatedDependency.gate = new CountDownLatch(0);
+            GatedDependency.destroyed = new AtomicInteger();
+            config.bind(GatedDependency.class, GatedDependency.class);
+            config.bind(PooledHolder.class, PooledHolder.class);
+            Context context = config.getContext(executor);
+            PooledHolder borrowed = context.get(ComponentRef.of(PooledHolder.class)).get();
+
+            GatedDependency.gate = new CountDownLatch(1);
+            CompletableFuture<PooledHolder> future = context.getAsync(ComponentRef.of(PooledHolder.class));
+            context.release(ComponentRef.of(PooledHolder.class), borrowed);
+            GatedDependency.gate.countDown();
+
+            assertSame(borrowed, future.get(5, TimeUnit.SECONDS));
+            assertEquals(1, GatedDependency.destroyed.get());
+        }
+
+        @Test
+        void should_fail_future_if_component_not_bound() {
+            CompletionException exception = assertThrows(CompletionException.class,
+                () -> config.getContext().getAsync(ComponentRef.of(Dependency.class)).join());
+
+            assertTrue(exception.getCause() instanceof DependencyNotFoundException);
+        }
+
+        @Test
+        void should_fail_future_if_dependency_construction_failed() {
+            config.bind(TestComponent.class, TypeBinding.ConstructorInjection.class);
+            config.bind(Dependency.class, FailingDependency.class);
+
+            CompletionException exception = assertThrows(CompletionException.class,
+                () -> config.getContext(executor).getAsync(ComponentRef.of(TestComponent.class)).join());
+
+            assertTrue(exception.getCause() instanceof IllegalStateException);
+        }
+
+        /**
+         * constructed only if another one is being constructed at the same time
+         */
+        static class OverlappingDependency {
+            static CountDownLatch arrived;
+
+            public OverlappingDependency() throws InterruptedException {
+                arrived.countDown();
+                if (!arrived.await(5, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("dependencies constructed one after another");
+                }
+            }
+        }
+
+        static class AnotherOverlappingDependency extends OverlappingDependency {
+            public AnotherOverlappingDependency() throws InterruptedException {
+            }
+        }
+
+        static class OverlappingConsumer {
+            final OverlappingDependency dependency;
+            final AnotherOverlappingDependency another;
+
+            @Inject
+            public OverlappingConsumer(OverlappingDependency dependency, AnotherOverlappingDependency another) {
+                this.dependency = dependency;
+                this.another = another;
+            }
+        }
+
+        static class FailingDependency implements Dependency {
+            public FailingDependency() {
+                throw new IllegalStateException();
+            }
+        }
+
+        static class CountedDependency {
+            static AtomicInteger constructed;
+
+            public CountedDependency() {
+                constructed.incrementAndGet();
+            }
+        }
+
+        @RequestScoped
+        static class RequestHolder {
+            @Inject
+            CountedDependency dependency;
+        }
+
+        static class GatedDependency {
+            static CountDownLatch gate;
+            static AtomicInteger destroyed;
+
+            public GatedDependency() throws InterruptedException {
+                gate.await(5, TimeUnit.SECONDS);
+            }
+
+            @PreDestroy
+            void destroy() {
+                destroyed.incrementAndGet();
+            }
+        }
+
+        @Pool(max = 1)
+        static class PooledHolder {
+            @Inject
+            GatedDependency dependency;
+        }
+    }
+
+    @Nested
+    class Lifecycle {
+        @BeforeEach
+        void before() {
+            Recorded.events = Collections.synchronizedList(new ArrayList<>());
+        }
+
+        @Test
+        void should_destroy_singletons_before_their_dependencies_on_close() {
+            config.bind(Dependency.class, DestroyedDependency.class);
+            config.bind(DestroyedComponent.class, DestroyedComponent.class);
+            Context context = config.getContext();
+            context.get(ComponentRef.of(DestroyedComponent.class));
+
+            context.close();
+
+            assertEquals(List.of("dependency constructed", "component constructed", "component destroyed", "dependency destroyed"),
+                Recorded.events);
+        }
+
+        @Test
+        void should_call_post_construct_through_generated_factory() {
+            config.useGeneratedFactories(true);
+            config.bind(Dependency.class, DestroyedDependency.class);
+
+            config.getContext().get(ComponentRef.of(Dependency.class));
+
+            assertEquals(List.of("dependency constructed"), Recorded.events);
+        }
+
+        @Test
+        void should_call_private_callbacks_of_component_and_superclass() {
+            config.bind(PrivateCallbacks.class, PrivateCallbacks.class);
+            Context context = config.getContext();
+            context.get(ComponentRef.of(PrivateCallbacks.class));
+
+            context.close();
+
+            assertEquals(List.of("super constructed", "constructed", "super destroyed", "destroyed"), Recorded.events);
+        }
+
+        @Test
+        void should_destroy_independent_singletons_in_parallel() {
+            ExecutorService executor = Executors.newFixedThreadPool(2);
+            try {
+                OverlappingDestroy.arrived = new CountDownLatch(2);
+                config.bind(OverlappingDestroy.class, OverlappingDestroy.class);
+                config.bind(AnotherOverlappingDestroy.class, AnotherOverlappingDestroy.class);
+                Context context = config.getContext(executor);
+
+                assertDoesNotThrow(context::close);
+            } finally {
+                executor.shutdown();
+            }
+        }
+
+        @Test
+        void should_report_components_not_destroyed_within_timeout() {
+            OverlappingDestroy.arrived = new CountDownLatch(2);
+            config.closeTimeout(Duration.ofMillis(50));
+            config.bind(OverlappingDestroy.class, OverlappingDestroy.class);
+            Context context = config.getContext();
+            context.get(ComponentRef.of(OverlappingDestroy.class));
+
+            try {
+                ContextCloseException exception = assertThrows(ContextCloseException.class, context::close);
+
+                assertEquals(List.of(new Component(OverlappingDestroy.class, null)), exception.getComponents());
+            } finally {
+                OverlappingDestroy.arrived.countDown();
+            }
+        }
+
+        @Test
+        void should_report_failed_pre_destroy_and_destroy_the_others() {
+            config.bind(Dependency.class, DestroyedDependency.class);
+            config.bind(FailingDestroy.class, FailingDestroy.class);
+            Context context = config.getContext();
+            context.get(ComponentRef.of(Dependency.class));
+            context.get(ComponentRef.of(FailingDestroy.class));
+
+            ContextCloseException exception = assertThrows(ContextCloseException.class, context::close);
+
+            assertEquals(List.of(new Component(FailingDestroy.class, null)), exception.getComponents());
+            assertTrue(exception.getSuppressed()[0] instanceof IllegalStateException);
+            assertTrue(Recorded.events.contains("dependency destroyed"));
+        }
+
+        @Test
+        void should_destroy_singleton_shared_by_qualifiers_once() {
+            config.bind(Dependency.class, DestroyedDependency.class, new NamedLiteral("one"), new SkywalkerLiteral());
+            Context context = config.getContext();
+            context.get(ComponentRef.of(Dependency.class, new NamedLiteral("one")));
+
+            context.close();
+
+            assertEquals(List.of("dependency constructed", "dependency destroyed"), Recorded.events);
+        }
+
+        @Test
+        void should_destroy_pooled_instances_on_close() {
+            config.bind(PooledDestroy.class, PooledDestroy.class);
+            Context context = config.getContext();
+            PooledDestroy borrowed = context.get(ComponentRef.of(PooledDestroy.class)).get();
+            context.release(ComponentRef.of(PooledDestroy.class), borrowed);
+
+            context.close();
+
+            assertEquals(List.of("pooled destroyed"), Recorded.events);
+        }
+
+        @Test
+        void should_destroy_request_scoped_instances_when_request_ends() {
+            config.bind(RequestDestroy.class, RequestDestroy.class);
+            Context context = config.getContext();
+
+            RequestScope.run(() -> {
+                context.get(ComponentRef.of(RequestDestroy.class));
+                assertEquals(List.of(), Recorded.events);
+            });
+
+            assertEquals(List.of("request destroyed"), Recorded.events);
+        }
+
+        @Test
+        void should_keep_request_failure_and_suppress_failed_pre_destroy() {
+            config.bind(FailingRequestDestroy.class, FailingRequestDestroy.class);
+            Context context = config.getContext();
+            IllegalArgumentException failure = new IllegalArgumentException();
+
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> RequestScope.run(() -> {
+                context.get(ComponentRef.of(FailingRequestDestroy.class));
+                throw failure;
+            }));
+
+            assertSame(failure, exception);
+            assertTrue(exception.getSuppressed()[0] instanceof IllegalStateException);
+        }
+
+        @Test
+        void should_throw_failed_pre_destroy_if_request_succeeds() {
+            config.bind(FailingRequestDestroy.class, FailingRequestDestroy.class);
+            Context context = config.getContext();
+
+            assertThrows(IllegalStateException.class, () -> RequestScope.run(() -> context.get(ComponentRef.of(FailingRequestDestroy.class))));
+        }
+
+        @Test
+        void should_not_construct_singleton_again_after_close() {
+            config.bind(Dependency.class, DestroyedDependency.class);
+            Context context = config.getContext();
+            context.get(ComponentRef.of(Dependency.class));
+            context.close();
+
+            assertThrows(IllegalStateException.class, () -> context.get(ComponentRef.of(Dependency.class)));
+            assertEquals(List.of("dependency constructed", "dependency destroyed"), Recorded.events);
+        }
+
+        @Test
+        void should_not_destroy_parent_singletons_when_child_closed() {
+            config.bind(Dependency.class, DestroyedDependency.class);
+            Context parent = config.getContext();
+            parent.get(ComponentRef.of(Dependency.class));
+
+            new ContextConfig(parent).getContext().close();
+
+            assertEquals(List.of("dependency constructed"), Recorded.events);
+        }
+
+        static class Recorded {
+            static List<String> events;
+        }
+
+        @Singleton
+        static class DestroyedDependency implements Dependency {
+            @PostConstruct
+            void start() {
+                Recorded.events.add("dependency constructed");
+            }
+
+            @PreDestroy
+            void stop() {
+                Recorded.events.add("dependency destroyed");
+            }
+        }
+
+        @Singleton
+        static class DestroyedComponent {
+            @Inject
+            Dependency dependency;
+
+            @PostConstruct
+            void start() {
+                Recorded.events.add("component constructed");
+            }
+
+            @PreDestroy
+            void stop() {
+                Recorded.events.add("component destroyed");
+            }
+        }
+
+        /**
+         * destroyed only if another one is being destroyed at the same time
+         */
+        @Singleton
+        static class OverlappingDestroy {
+            static CountDownLatch arrived;
+
+            @PreDestroy
+            void stop() throws InterruptedException {
+                arrived.countDown();
+                if (!arrived.await(5, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("destroyed one after another");
+                }
+            }
+        }
+
+        @Singleton
+        static class AnotherOverlappingDestroy extends OverlappingDestroy {
+        }
+
+        @Singleton
+        static class FailingDestroy {
+            @PreDestroy
+            void stop() {
+                throw new IllegalStateException();
+            }
+        }
+
+        @Pool
+        static class PooledDestroy {
+            @PreDestroy
+            void stop() {
+                Recorded.events.add("pooled destroyed");
+            }
+        }
+
+        static class PrivateSuperCallbacks {
+            @PostConstruct
+            private void start() {
+                Recorded.events.add("super constructed");
+            }
+
+            @PreDestroy
+            private void stop() {
+                Recorded.events.add("super destroyed");
+            }
+        }
+
+        @Singleton
+        static class PrivateCallbacks extends PrivateSuperCallbacks {
+            @PostConstruct
+            private void start() {
+                Recorded.events.add("constructed");
+            }
+
+            @PreDestroy
+            private void stop() {
+                Recorded.events.add("destroyed");
+            }
+        }
+
+        @RequestScoped
+        static class RequestDestroy {
+            @PreDestroy
+            void stop() {
+                Recorded.events.add("request destroyed");
+            }
+        }
+
+        @RequestScoped
+        static class FailingRequestDestroy {
+            @PreDestroy
+            void stop() {
+                throw new IllegalStateException();
+            }
+        }
+    }
+
+    @Nested
+    class LiveRebinding {
+        @BeforeEach
+        void setup() {
+            RetiredComponent.destroyed.set(0);
+        }
+
+        @Test
+        void should_get_component_bound_again_after_rebind() {
+            config.bind(Dependency.class, dependency);
+            LiveContext context = config.getLiveContext();
+            Dependency rebound = new Dependency() {
+            };
+
+            context.rebind(next -> next.bind(Dependency.class, rebound));
+
+            assertSame(rebound, context.get(ComponentRef.of(Dependency.class)).get());
+            assertEquals(1, context.version());
+        }
+
+        @Test
+        void should_keep_current_version_if_rebind_not_validated() {
+            config.bind(Dependency.class, dependency);
+            LiveContext context = config.getLiveContext();
+
+            assertThrows(DependencyNotFoundException.class, () -> context.rebind(next -> {
+                next.bind(Dependency.class, new Dependency() {
+                });
+                next.bind(UnboundDependent.class, UnboundDependent.class);
+            }));
+
+            assertSame(dependency, context.get(ComponentRef.of(Dependency.class)).get());
+            assertEquals(0, context.version());
+        }
+
+        @Test
+        void should_keep_singletons_of_components_not_bound_again() {
+            config.bind(RetiredComponent.class, RetiredComponent.class);
+            config.bind(Dependency.class, dependency);
+            LiveContext context = config.getLiveContext();
+            RetiredComponent singleton = context.get(ComponentRef.of(RetiredComponent.class)).get();
+
+            context.rebind(next -> next.bind(Dependency.class, new Dependency() {
+            }));
+
+            assertSame(singleton, context.get(ComponentRef.of(RetiredComponent.class)).get());
+        }
+
+        @Test
+        void should_get_component_bound_again_through_handle_taken_before_rebind() {
+            config.bind(Dependency.class, dependency);
+            LiveContext context = config.getLiveContext();
+            ComponentHandle<Dependency> handle = context.handle(ComponentRef.of(Dependency.class));
+            Dependency rebound = new Dependency() {
+            };
+
+            context.rebind(next -> next.bind(Dependency.class, rebound));
+
+            assertSame(rebound, handle.get());
+        }
+
+        @Test
+        void should_construct_dependents_of_component_bound_again_with_it() {
+            config.bind(Algorithm.class, OldAlgorithm.class);
+            config.bind(AlgorithmService.class, AlgorithmService.class);
+            config.bind(AlgorithmFacade.class, AlgorithmFacade.class);
+            LiveContext context = config.getLiveContext();
+            AlgorithmFacade facade = context.get(ComponentRef.of(AlgorithmFacade.class)).get();
+
+            context.rebind(next -> next.bind(Algorithm.class, NewAlgorithm.class));
+
+            AlgorithmFacade rebound = context.get(ComponentRef.of(AlgorithmFacade.class)).get();
+            assertNotSame(facade, rebound);
+            assertTrue(rebound.service.algorithm instanceof NewAlgorithm);
+            assertSame(rebound.service, context.get(ComponentRef.of(AlgorithmService.class)).get());
+        }
+
+        @Test
+        void should_destroy_retired_instances_once_gets_in_their_version_finish() throws Exception {
+            config.bind(RetiredComponent.class, RetiredComponent.class);
+            config.bind(BlockingComponent.class, BlockingComponent.class);
+            LiveContext context = config.getLiveContext();
+            context.get(ComponentRef.of(RetiredComponent.class));
+            BlockingComponent.latch = new CountDownLatch(1);
+            CompletableFuture<BlockingComponent> running = context.getAsync(ComponentRef.of(BlockingComponent.class));
+
+            context.rebind(next -> next.bind(RetiredComponent.class, RetiredComponent.class));
+            assertEquals(0, RetiredComponent.destroyed.get());
+
+            BlockingComponent.latch.countDown();
+            running.get(5, TimeUnit.SECONDS);
+            assertEquals(1, RetiredComponent.destroyed.get());
+        }
+
+        @Test
+        void should_not_affect_config_live_context_got_from() {
+            config.bind(Dependency.class, dependency);
+            LiveContext context = config.getLiveContext();
+
+            context.rebind(next -> next.bind(Dependency.class, new Dependency() {
+            }));
+
+            assertSame(dependency, config.getContext().get(ComponentRef.of(Dependency.class)).get());
+        }
+
+        @Test
+        void should_destroy_instances_of_retired_providers_once_no_get_runs_in_their_version() {
+            config.bind(RetiredComponent.class, RetiredComponent.class);
+            LiveContext context = config.getLiveContext();
+            context.get(ComponentRef.of(RetiredComponent.class));
+
+            context.rebind(next -> next.bind(RetiredComponent.class, RetiredComponent.class));
+            context.get(ComponentRef.of(RetiredComponent.class));
+            assertEquals(1, RetiredComponent.destroyed.get());
+
+            context.close();
+
+            assertEquals(2, RetiredComponent.destroyed.get());
+        }
+
+        interface Algorithm {
+        }
+
+        static class OldAlgorithm implements Algorithm {
+        }
+
+        static class NewAlgorithm implements Algorithm {
+        }
+
+        @Singleton
+        static class AlgorithmService {
+            final Algorithm algorithm;
+
+            @Inject
+            public AlgorithmService(Algorithm algorithm) {
+                this.algorithm = algorithm;
+            }
+        }
+
+        @Singleton
+        static class AlgorithmFacade {
+            final AlgorithmService service;
+
+            @Inject
+            public AlgorithmFacade(AlgorithmService service) {
+                this.service = service;
+            }
+        }
+
+        static class BlockingComponent {
+            static CountDownLatch latch;
+
+            @Inject
+            public BlockingComponent() throws InterruptedException {
+                latch.await();
+            }
+        }
+
+        static class UnboundDependent {
+            @Inject
+            public UnboundDependent(RetiredComponent component) {
+            }
+        }
+
+        @Singleton
+        static class RetiredComponent {
+            static final AtomicInteger destroyed = new AtomicInteger();
+
+            @PreDestroy
+            void destroy() {
+                destroyed.incrementAndGet();
+            }
+        }
+    }
+
+    @Nested
+    class ChildContext {
+        @Test
+        void should_retrieve_component_bound_in_parent() {
+            config.bind(Dependency.class, dependency);
+            Context child = new ContextConfig(config.getContext()).getContext();
+
+            assertSame(dependency, child.get(ComponentRef.of(Dependency.class)).get());
+        }
+
+        @Test
+        void should_inject_parent_component_into_child_component() {
+            config.bind(Dependency.class, dependency);
+            ContextConfig child = new ContextConfig(config.getContext());
+            child.bind(TestComponent.class, TypeBinding.ConstructorInjection.class);
+
+            TestComponent component = child.getContext().get(ComponentRef.of(TestComponent.class)).get();
+
+            assertSame(dependency, component.dependency());
+        }
+
+        @Test
+        void should_share_parent_singleton_with_child_contexts() {
+            config.bind(Dependency.class, SingletonDependency.class);
+            Context parent = config.getContext();
+
+            Context child = new ContextConfig(parent).getContext();
+            Context another = new ContextConfig(parent).getContext();
+
+            assertSame(parent.get(ComponentRef.of(Dependency.class)).get(), child.get(ComponentRef.of(Dependency.class)).get());
+            assertSame(child.get(ComponentRef.of(Dependency.class)).get(), another.get(ComponentRef.of(Dependency.class)).get());
+        }
+
+        @Test
+        void should_prefer_component_bound_in_child() {
+            config.bind(Dependency.class, dependency);
+            ContextConfig child = new ContextConfig(config.getContext());
+            Dependency overridden = new Dependency() {
+            };
+            child.bind(Dependency.class, overridden);
+
+            assertSame(overridden, child.getContext().get(ComponentRef.of(Dependency.class)).get());
+        }
+
+        @Test
+        void should_not_retrieve_child_component_from_parent() {
+            Context parent = config.getContext();
+            ContextConfig child = new ContextConfig(parent);
+            child.bind(Dependency.class, dependency);
+            child.getContext();
+
+            assertTrue(parent.get(ComponentRef.of(Dependency.class)).isEmpty());
+        }
+
+        @Test
+        void should_throw_exception_if_dependency_not_found_in_child_or_parent() {
+            ContextConfig child = new ContextConfig(config.getContext());
+            child.bind(TestComponent.class, TypeBinding.ConstructorInjection.class);
+
+            DependencyNotFoundException exception = assertThrows(DependencyNotFoundException.class, () -> child.getContext());
+
+            assertSame(Dependency.class, exception.getDependency().type());
+        }
+
+        @Test
+        void should_throw_exception_if_parent_not_got_from_config() {
+            assertThrows(IllegalArgumentException.class, () -> new ContextConfig(new Context() {
+                @Override
+                public <ComponentType> Optional<ComponentType> get(ComponentRef<ComponentType> ref) {
+                    return Optional.empty();
+                }
+            }));
+        }
+
+        @Singleton
+        static class SingletonDependency implements Dependency {
+        }
+    }
+
+    @Nested
+    class Snapshot {
+        Path path;
+
+        @BeforeEach
+        public void before() throws IOException {
+            path = Files.createTempDirectory("snapshot").resolve("context.snapshot");
+        }
+
+        @Test
+        void should_record_snapshot_when_context_got() {
+            config.useSnapshot(path);
+            config.bind(Dependency.class, dependency);
+            config.bind(TestComponent.class, TypeBinding.FieldInjection.class);
+
+            config.getContext();
+
+            assertTrue(Files.exists(path));
+        }
+
+        @Test
+        void should_inject_components_restored_from_snapshot() {
+            config.useSnapshot(path);
+            config.bind(Dependency.class, dependency);
+            config.bind(TestComponent.class, TypeBinding.MethodInjection.class);
+            config.getContext();
+
+            ContextConfig restored = new ContextConfig();
+            restored.useSnapshot(path);
+            restored.bind(Dependency.class, dependency);
+            restored.bind(TestComponent.class, TypeBinding.MethodInjection.class);
+
+            assertSame(dependency, restored.getContext().get(ComponentRef.of(TestComponent.class)).get().dependency());
+        }
+
+        @Test
+        void should_restore_inject_members_recorded_in_snapshot() {
+            MetadataSnapshot recording = MetadataSnapshot.load(path);
+            InjectionProvider<TypeBinding.ConstructorInjection> scanned = recording.provider(TypeBinding.ConstructorInjection.class);
+            recording.save(recording.fingerprint(Map.of(), provider -> null));
+
+            InjectionProvider<TypeBinding.ConstructorInjection> restored =
+                MetadataSnapshot.load(path).provider(TypeBinding.ConstructorInjection.class);
+
+            assertEquals(scanned.constructor(), restored.constructor());
+            assertEquals(scanned.getDependencies(), restored.getDependencies());
+        }
+
+        @Test
+        void should_check_dependencies_again_if_graph_changed() {
+            config.useSnapshot(path);
+            config.bind(Dependency.class, dependency);
+            config.bind(TestComponent.class, TypeBinding.ConstructorInjection.class);
+            config.getContext();
+
+            ContextConfig changed = new ContextConfig();
+            changed.useSnapshot(path);
+            changed.bind(TestComponent.class, TypeBinding.ConstructorInjection.class);
+
+            assertThrows(DependencyNotFoundException.class, () -> changed.getContext());
+        }
+
+        @Test
+        void should_ignore_corrupted_snapshot() throws IOException {
+            Files.write(path, new byte[] {1, 2, 3});
+
+            config.useSnapshot(path);
+            config.bind(Dependency.class, dependency);
+            config.bind(TestComponent.class, TypeBinding.ConstructorInjection.class);
+
+            assertSame(dependency, config.getContext().get(ComponentRef.of(TestComponent.class)).get().dependency());
+            assertTrue(Files.size(path) > 3);
+        }
+
+        @Test
+        void should_get_context_if_snapshot_cannot_be_recorded() {
+            Path missing = path.resolveSibling("missing").resolve("context.snapshot");
+            config.useSnapshot(missing);
+            config.bind(Dependency.class, dependency);
+            config.bind(TestComponent.class, TypeBinding.ConstructorInjection.class);
+
+            assertSame(dependency, config.getContext().get(ComponentRef.of(TestComponent.class)).get().dependency());
+            assertFalse(Files.exists(missing));
+        }
+
+        @Test
+        void should_checksum_class_bytes_whatever_the_file_times_and_size() throws Exception {
+            String name = Versioned.class.getName().replace('.', '/') + ".class";
+            byte[] bytes;
+            try (InputStream in = Versioned.class.getResourceAsStream("/" + name)) {
+                bytes = in.readAllBytes();
+            }
+            Path first = path.resolveSibling("first");
+            Path other = path.resolveSibling("other");
+            write(first.resolve(name), bytes);
+            write(other.resolve(name), new String(bytes, StandardCharsets.ISO_8859_1).replace("first", "other")
+                .getBytes(StandardCharsets.ISO_8859_1));
+
+            MetadataSnapshot snapshot = MetadataSnapshot.load(path);
+
+            assertNotEquals(snapshot.checksum(load(first, Versioned.class)), snapshot.checksum(load(other, Versioned.class)));
+        }
+
+        private void write(Path file, byte[] bytes) throws IOException {
+            Files.createDirectories(file.getParent());
+            Files.write(file, bytes);
+            Files.setLastModifiedTime(file, FileTime.fromMillis(0));
+        }
+
+        /**
+         * the class is defined again from the directory, its dependencies are the ones loaded already
+         */
+        private Class<?> load(Path directory, Class<?> type) throws Exception {
+            URLClassLoader loader = new URLClassLoader(new URL[] {directory.toUri().toURL()}, type.getClassLoader()) {
+                @Override
+                protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+                    synchronized (getClassLoadingLock(name)) {
+                        if (!name.equals(type.getName())) {
+                            return super.loadClass(name, resolve);
+                        }
+                        Class<?> loaded = findLoadedClass(name);
+                        return loaded != null ? loaded : findClass(name);
+                    }
+                }
+            };
+            return loader.loadClass(type.getName());
+        }
+
+        static class Versioned {
+            @Inject
+            @jakarta.inject.Named("first")
+            Dependency dependency;
+        }
+    }
+
+    @Nested
+    class Scanning {
+        static boolean initialized;
+
+        Path root;
+        ComponentScanner scanner = new ComponentScanner(ContextTest.class.getClassLoader());
+
+        @BeforeEach
+        public void before() throws IOException {
+            root = Files.createTempDirectory("scanning");
+            initialized = false;
+        }
+
+        @Test
+        void should_find_scoped_and_qualified_classes_in_directory() throws IOException {
+            copy(root, ScannedSingleton.class, ScannedQualified.class, NotScanned.class, AbstractScanned.class, ScannedService.class);
+
+            assertEquals(List.of(ScannedQualified.class, ScannedSingleton.class), scanner.scan(List.of(root)));
+        }
+
+        @Test
+        void should_find_scoped_and_qualified_classes_in_jar() throws IOException {
+            Path jar = root.resolve("components.jar");
+            try (FileSystem jarFile = FileSystems.newFileSystem(jar, Map.of("create", "true"))) {
+                copy(jarFile.getPath("/"), ScannedSingleton.class, ScannedQualified.class, NotScanned.class);
+            }
+
+            assertEquals(List.of(ScannedQualified.class, ScannedSingleton.class), scanner.scan(List.of(jar)));
+        }
+
+        @Test
+        void should_not_initialize_classes_scanned() throws IOException {
+            copy(root, ScannedSingleton.class, NotScanned.class);
+
+            scanner.scan(List.of(root));
+
+            assertFalse(initialized);
+        }
+
+        @Test
+        void should_bind_scanned_components_to_implemented_interfaces() throws IOException {
+            copy(root, ScannedSingleton.class, ScannedQualified.class);
+            config.bindAll(scanner.scan(List.of(root)));
+
+            Context context = config.getContext();
+
+            assertSame(context.get(ComponentRef.of(ScannedSingleton.class)).get(), context.get(ComponentRef.of(ScannedService.class)).get());
+            assertTrue(context.get(ComponentRef.of(ScannedQualified.class, new SkywalkerLiteral())).isPresent());
+        }
+
+        private void copy(Path root, Class<?>... types) throws IOException {
+            for (Class<?> type : types) {
+                String name = type.getName().replace('.', '/') + ".class";
+                Path target = root.resolve(name);
+                Files.createDirectories(target.getParent());
+                try (InputStream in = type.getResourceAsStream("/" + name)) {
+                    Files.copy(in, target);
+                }
+            }
+        }
+
+        interface ScannedService {
+        }
+
+        @Singleton
+        static class ScannedSingleton implements ScannedService {
+        }
+
+        @Skywalker
+        static class ScannedQualified {
+        }
+
+        @Singleton
+        abstract static class AbstractScanned {
+        }
+
+        static class NotScanned {
+            static {
+                initialized = true;
+            }
+        }
+    }
+
+    @Nested
+    class Statistics {
+        @Test
+        void should_not_collect_statistics_by_default() {
+            config.bind(Dependency.class, dependency);
+            Context context = config.getContext();
+            context.get(ComponentRef.of(Dependency.class));
+
+            assertTrue(context.statistics().isEmpty());
+        }
+
+        @Test
+        void should_count_resolutions_and_constructions_of_component() {
+            config.collectStatistics(true);
+            config.bind(Dependency.class, dependency);
+            config.bind(TestComponent.class, TypeBinding.ConstructorInjection.class);
+            Context context = config.getContext();
+
+            IntStream.range(0, 3).forEach(i -> context.get(ComponentRef.of(TestComponent.class)));
+
+            ComponentStatistics component = context.statistics().get(new Component(TestComponent.class, null));
+            assertEquals(3, component.resolutions());
+            assertEquals(3, component.constructions());
+            assertEquals(3, context.statistics().get(new Component(Dependency.class, null)).resolutions());
+        }
+
+        @Test
+        void should_count_scope_hits_and_misses_of_component() {
+            config.collectStatistics(true);
+            config.bind(Dependency.class, SingletonDependency.class);
+            Context context = config.getContext();
+
+            IntStream.range(0, 3).forEach(i -> context.get(ComponentRef.of(Dependency.class)));
+
+            ComponentStatistics statistics = context.statistics().get(new Component(Dependency.class, null));
+            assertEquals(2, statistics.scopeHits());
+            assertEquals(1, statistics.scopeMisses());
+            assertEquals(1, statistics.constructions());
+        }
+
+        @Test
+        void should_record_construction_events() throws IOException {
+            config.bind(Dependency.class, dependency);
+            config.bind(TestComponent.class, TypeBinding.ConstructorInjection.class);
+            Context context = config.getContext();
+            Path file = Files.createTempFile("construction", ".jfr");
+
+            try (Recording recording = new Recording()) {
+                recording.enable("com.time.tdd.di.Construction");
+                recording.start();
+                context.get(ComponentRef.of(TestComponent.class));
+                recording.stop();
+                recording.dump(file);
+            }
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals("com.time.tdd.di.Construction")).toList();
+            assertEquals(1, events.size());
+            assertEquals(TestComponent.class.getName(), events.get(0).getClass("type").getName());
+            assertEquals(TypeBinding.ConstructorInjection.class.getName(), events.get(0).getClass("implementation").getName());
+        }
+
+        @Test
+        void should_not_profile_context_not_collecting_statistics() {
+            config.bind(Dependency.class, dependency);
+
+            assertTrue(config.getContext().profile().isEmpty());
+        }
+
+        @Test
+        void should_find_critical_path_by_own_construction_time() {
+            config.collectStatistics(true);
+            config.bind(SlowDependency.class, SlowDependency.class);
+            config.bind(SlowDependent.class, SlowDependent.class);
+            config.bind(Dependency.class, SingletonDependency.class);
+            Context context = config.getContext();
+            context.get(ComponentRef.of(SlowDependent.class));
+            context.get(ComponentRef.of(Dependency.class));
+
+            StartupProfile profile = context.profile().get();
+
+            Component slow = new Component(SlowDependency.class, null);
+            Component dependent = new Component(SlowDependent.class, null);
+            assertEquals(List.of(slow, dependent), profile.criticalPath());
+            Map<Component, Long> nanos = profile.nodes().stream()
+                .collect(Collectors.toMap(StartupProfile.Node::component, StartupProfile.Node::nanos));
+            assertTrue(nanos.get(slow) >= TimeUnit.MILLISECONDS.toNanos(20));
+            assertTrue(nanos.get(dependent) < TimeUnit.MILLISECONDS.toNanos(20));
+            assertEquals(slow, profile.savings().get(0).component());
+        }
+
+        @Test
+        void should_export_profile_as_dot_and_json() {
+            config.collectStatistics(true);
+            config.bind(SlowDependency.class, SlowDependency.class);
+            config.bind(SlowDependent.class, SlowDependent.class);
+            Context context = config.getContext();
+            context.get(ComponentRef.of(SlowDependent.class));
+
+            StartupProfile profile = context.profile().get();
+
+            assertTrue(profile.toDot().contains("n1 -> n0 [color=red];"));
+            assertTrue(profile.toJson().contains("\"type\":\"" + SlowDependent.class.getName() + "\""));
+            assertTrue(profile.toJson().contains("\"criticalPath\":[0,1]"));
+        }
+
+        @Test
+        void should_break_ties_of_critical_path_whatever_the_order_of_nodes() {
+            Component first = new Component(SlowDependency.class, null);
+            Component second = new Component(SlowDependent.class, null);
+            Component consumer = new Component(Dependency.class, null);
+            StartupProfile.Node dependent = new StartupProfile.Node(consumer, 5, List.of(first, second));
+
+            StartupProfile forward = new StartupProfile(List.of(new StartupProfile.Node(first, 10, List.of()),
+                new StartupProfile.Node(second, 10, List.of()), dependent));
+            StartupProfile backward = new StartupProfile(List.of(new StartupProfile.Node(second, 10, List.of()),
+                new StartupProfile.Node(first, 10, List.of()), dependent));
+
+            assertEquals(forward.criticalPath(), backward.criticalPath());
+            assertEquals(15, backward.criticalPathNanos());
+        }
+
+        @Test
+        void should_escape_quotes_of_qualifier_in_dot_and_json() {
+            Component quoted = new Component(Dependency.class, new NamedLiteral("say \"hi\""));
+
+            StartupProfile profile = new StartupProfile(List.of(new StartupProfile.Node(quoted, 10, List.of())));
+
+            assertTrue(profile.toDot().contains("say \\\"hi\\\""));
+            assertTrue(profile.toJson().contains("say \\\"hi\\\""));
+            assertFalse(profile.toJson().contains("say \"hi\""));
+        }
+
+        static class SlowDependency {
+            @Inject
+            public SlowDependency() throws InterruptedException {
+                Thread.sleep(20);
+            }
+        }
+
+        static class SlowDependent {
+            @Inject
+            public SlowDependent(SlowDependency dependency) {
+            }
+        }
+
+        @Singleton
+        static class SingletonDependency implements Dependency {
+        }
+    }
+
+    @Nested
+    class DependencyCheck {
+        static Stream<Arguments> should_throw_exception_if_dependency_not_found() {
+            return Stream.of(Arguments.of(Named.of("Inject Constructor", DependencyCheck.MissingDependencyConstructor.class)),
+                Arguments.of(Named.of("Inject Field", DependencyCheck.MissingDependencyField.class)),
+                Arguments.of(Named.of("Inject Method", DependencyCheck.MissingDependencyMethod.class)),
+                Arguments.of(Named.of("Provider in Inject Constructor", DependencyCheck.MissingDependencyProviderConstructor.class)),
+                Arguments.of(Named.of("Provider in Inject Field", DependencyCheck.MissingDependencyProviderField.class)),
+                Arguments.of(Named.of("Provider in Inject Method", DependencyCheck.MissingDependencyProviderMethod.class)),
+                Arguments.of(Named.of("Scoped", MissingDependencyScoped.class)),
+                Arguments.of(Named.of("Provider Scoped", MissingDependencyProviderScoped.class))
+            );
+        }
+
+        static Stream<Arguments> should_throw_exception_if_cyclic_dependencies_found() {
+            List<Arguments> arguments = new ArrayList<>();
+            for (Named<? extends Class<? extends TestComponent>> component : List.of(
+                Named.of("Inject Constructor", CyclicComponentInjectConstructor.class),
+                Named.of("Inject Field", CyclicComponentInjectField.class),
+                Named.of("Inject Method", CyclicComponentInjectMethod.class))) {
+                for (Named<? extends Class<? extends Dependency>> dependency : List.of(
+                    Named.of("Inject Constructor", CyclicDependencyInjectConstructor.class),
+                    Named.of("Inject Field", CyclicDependencyInjectField.class),
+                    Named.of("Inject Method", CyclicDependencyInjectMethod.class))) {
+                    arguments.add(Arguments.of(component, dependency));
+                }
+            }
+            return arguments.stream();
+        }
+
+        static Stream<Arguments> should_throw_exception_if_transitive_cyclic_dependencies_found() {
+            List<Arguments> arguments = new ArrayList<>();
+            for (Named<? extends Class<? extends TestComponent>> component : List.of(
+                Named.of("Inject Constructor", CyclicComponentInjectConstructor.class),
+                Named.of("Inject Field", CyclicComponentInjectField.class),
+                Named.of("Inject Method", CyclicComponentInjectMethod.class))) {
+                for (Named<? extends Class<? extends Dependency>> dependency : List.of(
+                    Named.of("Inject Constructor", IndirectCyclicDependencyInjectConstructor.class),
+                    Named.of("Inject Field", IndirectCyclicDependencyInjectField.class),
+                    Named.of("Inject Method", IndirectCyclicDependencyInjectMethod.class))) {
+                    for (Named<? extends Class<? extends AnotherDependency>> anotherDependency : List.of(
+                        Named.of("Inject Constructor", IndirectCyclicAnotherDependencyInjectConstructor.class),
+                        Named.of("Inject Field", IndirectCyclicAnotherDependencyInjectField.class),
+                        Named.of("Inject Method", IndirectCyclicAnotherDependencyInjectMethod.class))) {
+                        arguments.add(Arguments.of(component, dependency, anotherDependency));
+                    }
+                }
+            }
+            return arguments.stream();
+        }
+
+        @ParameterizedTest
+        @MethodSource
+        void should_throw_exception_if_dependency_not_found(Class<? extends TestComponent> component) {
+            config.bind(TestComponent.class, component);
+
+            DependencyNotFoundException exception =
+                assertThrows(DependencyNotFoundException.class, () -> config.getContext());
+
+            assertSame(Dependency.class, exception.getDependency().type());
+            assertSame(TestComponent.class, exception.getComponent().type());
+        }
+
+        @ParameterizedTest(name = "cyclic dependency between {0} and {1}")
+        @MethodSource
+        void should_throw_exception_if_cyclic_dependencies_found(Class<? extends TestComponent> component,
+                                                                 Class<? extends Dependency> dependency) {
+            config.bind(TestComponent.class, component);
+            config.bind(Dependency.class, dependency);
+
+            CyclicDependenciesFoundException e =
+                assertThrows(CyclicDependenciesFoundException.class, () -> config.getContext());
+
+            Set<Class<?>> classes = Sets.newSet(e.getComponents());
+            assertEquals(2, classes.size());
+            assertTrue(classes.contains(TestComponent.class));
+            assertTrue(classes.contains(Dependency.class));
+        }
+
+        // A-> B -> C -> A
+        @ParameterizedTest(name = "indirect cyclic dependency between {0}, {1} and {2}")
+        @MethodSource
+        void should_throw_exception_if_transitive_cyclic_dependencies_found(Class<? extends TestComponent> component,
+                                                                            Class<? extends Dependency> dependency,
+                                                                            Class<? extends AnotherDependency> anotherDependency) {
+            config.bind(TestComponent.class, component);
+            config.bind(Dependency.class, dependency);
+            config.bind(AnotherDependency.class, anotherDependency);
+
+            CyclicDependenciesFoundException e =
+                assertThrows(CyclicDependenciesFoundException.class, () -> config.getContext());
+
+            List<Class<?>> components = Arrays.asList(e.getComponents());
+
+            assertEquals(3, components.size());
+            assertTrue(components.contains(TestComponent.class));
+            assertTrue(components.contains(Dependency.class));
+            assertTrue(components.contains(AnotherDependency.class));
+        }
+
+        @Test
+        void should_report_cyclic_dependencies_in_dependency_order() {
+            config.bind(TestComponent.class, CyclicComponentInjectConstructor.class);
+            config.bind(Dependency.class, IndirectCyclicDependencyInjectConstructor.class);
+            config.bind(AnotherDependency.class, IndirectCyclicAnotherDependencyInjectConstructor.class);
+
+            CyclicDependenciesFoundException e =
+                assertThrows(CyclicDependenciesFoundException.class, () -> config.getContext());
+
+            List<Class<?>> cycle = Arrays.asList(e.getComponents());
+            int component = cycle.indexOf(TestComponent.class);
+            assertEquals(Dependency.class, cycle.get((component + 1) % 3));
+            assertEquals(AnotherDependency.class, cycle.get((component + 2) % 3));
+        }
+
+        @Test
+        void should_check_diamond_dependencies_only_once() {
+            int layers = 64;
+            for (int layer = 0; layer < layers; layer++) {
+                Component bottom = node(layer * 3 + 3);
+                bindNode(node(layer * 3), node(layer * 3 + 1), node(layer * 3 + 2));
+                bindNode(node(layer * 3 + 1), bottom);
+                bindNode(node(layer * 3 + 2), bottom);
+            }
+            bindNode(node(layers * 3));
+
+            assertDoesNotThrow(() -> config.getContext());
+        }
+
+        @Test
+        void should_check_deep_dependency_chain() {
+            int depth = 100_000;
+            for (int i = 0; i < depth; i++) {
+                bindNode(node(i), node(i + 1));
+            }
+            bindNode(node(depth), node(0));
+
+            CyclicDependenciesFoundException e =
+                assertThrows(CyclicDependenciesFoundException.class, () -> config.getContext());
+            assertEquals(depth + 1, e.getCycle().size());
+        }
+
+        private Component node(int id) {
+            return new Component(Object.class, Qualifiers.of(jakarta.inject.Named.class, Map.of("value", String.valueOf(id))));
+        }
+
+        private void bindNode(Component node, Component... dependencies) {
+            List<ComponentRef<?>> refs = Arrays.stream(dependencies).<ComponentRef<?>>map(d -> ComponentRef.of(Object.class, d.qualifier()))
+                .collect(Collectors.toList());
+            config.bind(node, new ComponentProvider<>() {
+                @Override
+                public Object get(Context context) {
+                    return new Object();
+                }
+
+                @Override
+                public List<ComponentRef<?>> getDependencies() {
+                    return refs;
+                }
+            });
         }
 
         @Test
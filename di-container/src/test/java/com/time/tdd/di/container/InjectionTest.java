@@ -2,7 +2,11 @@ package com.time.tdd.di.container;
 
 import com.time.tdd.di.container.exceptions.IllegalComponentException;
 import java.lang.reflect.ParameterizedType;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.inject.Inject;
 import jakarta.inject.Named;
 import jakarta.inject.Provider;
@@ -122,6 +126,14 @@ public class InjectionTest {
                     provider.getDependencies().toArray(ComponentRef[]::new));
             }
 
+            @Test
+            void should_scan_component_once_for_all_providers() {
+                InjectionProvider<InjectConstructor> provider = new InjectionProvider<>(InjectConstructor.class);
+                InjectionProvider<InjectConstructor> another = new InjectionProvider<>(InjectConstructor.class);
+
+                assertSame(provider.getDependencies(), another.getDependencies());
+            }
+
             @Test
             void should_inject_provider_via_inject_constructor() {
                 ProviderInjectConstructor instance = new InjectionProvider<>(ProviderInjectConstructor.class).get(context);
@@ -531,5 +543,120 @@ public class InjectionTest {
 
     }
 
-}
+    @Nested
+    class LifecycleCallbacks {
+        @Test
+        void should_call_post_construct_after_injection() {
+            PostConstructAfterInjection component = new InjectionProvider<>(PostConstructAfterInjection.class).get(context);
+
+            assertSame(dependency, component.injected);
+        }
+
+        @Test
+        void should_call_post_construct_of_superclass_first() {
+            SubClassWithCallbacks component = new InjectionProvider<>(SubClassWithCallbacks.class).get(context);
+
+            assertEquals(List.of("super", "sub"), component.called);
+        }
+
+        @Test
+        void should_not_call_callback_overridden_without_annotation() {
+            SubClassOverrideCallbackWithNoAnnotation component =
+                new InjectionProvider<>(SubClassOverrideCallbackWithNoAnnotation.class).get(context);
+
+            assertEquals(List.of(), component.called);
+        }
+
+        @Test
+        void should_call_callback_overridden_with_annotation_once() {
+            SubClassOverrideCallbackWithAnnotation component =
+                new InjectionProvider<>(SubClassOverrideCallbackWithAnnotation.class).get(context);
+
+            assertEquals(List.of("override"), component.called);
+        }
+
+        @Test
+        void should_call_pre_destroy_on_destroy() {
+            InjectionProvider<SubClassWithCallbacks> provider = new InjectionProvider<>(SubClassWithCallbacks.class);
+            SubClassWithCallbacks component = provider.get(context);
+
+            provider.destroy(component);
+
+            assertEquals(List.of("super", "sub", "super destroyed", "sub destroyed"), component.called);
+        }
+
+        @Test
+        void should_throw_exception_if_callback_has_parameters() {
+            assertThrows(IllegalComponentException.class, () -> new InjectionProvider<>(CallbackWithParameter.class));
+        }
 
+        @Test
+        void should_throw_exception_if_callback_is_static() {
+            assertThrows(IllegalComponentException.class, () -> new InjectionProvider<>(StaticCallback.class));
+        }
+
+        static class PostConstructAfterInjection {
+            @Inject
+            Dependency dependency;
+            Dependency injected;
+
+            @PostConstruct
+            void start() {
+                injected = dependency;
+            }
+        }
+
+        static class SuperClassWithCallbacks {
+            List<String> called = new ArrayList<>();
+
+            @PostConstruct
+            void startSuper() {
+                called.add("super");
+            }
+
+            @PreDestroy
+            void stopSuper() {
+                called.add("super destroyed");
+            }
+        }
+
+        static class SubClassWithCallbacks extends SuperClassWithCallbacks {
+            @PostConstruct
+            void startSub() {
+                called.add("sub");
+            }
+
+            @PreDestroy
+            void stopSub() {
+                called.add("sub destroyed");
+            }
+        }
+
+        static class SubClassOverrideCallbackWithNoAnnotation extends SuperClassWithCallbacks {
+            @Override
+            void startSuper() {
+            }
+        }
+
+        static class SubClassOverrideCallbackWithAnnotation extends SuperClassWithCallbacks {
+            @PostConstruct
+            @Override
+            void startSuper() {
+                called.add("override");
+            }
+        }
+
+        static class CallbackWithParameter {
+            @PostConstruct
+            void start(Dependency dependency) {
+            }
+        }
+
+        static class StaticCallback {
+            @PreDestroy
+            static void stop() {
+            }
+        }
+    }
+
+}
@@ -52,6 +52,7 @@ dependencyResolutionManagement {
             version("hutool.version", "5.7.22")
             version("reflections", "0.10.2")
             version("querydsl", "5.0.0")
+            version("jmh", "1.36")
 
             library(
                 "springBoot-dependencies",
@@ -132,6 +133,7 @@ dependencyResolutionManagement {
                 "springDependencyManagement",
                 "io.spring.dependency-management"
             ).version("1.0.11.RELEASE")
+            plugin("jmh", "me.champeau.jmh").version("0.6.8")
         }
     }
 }
@@ -141,6 +143,7 @@ includeProject("usual", "usual")
 includeProject("args", "time-args")
 includeProject("args-other", "args-other")
 includeProject("container", "di-container")
+includeProject("container-processor", "di-container-processor")
 
 
 fun includeProject(name: String, path: String, changeBuildFileName: Boolean = true) {